@@ -0,0 +1,372 @@
+/****************************************************
+ *  Program Title: Data Generator                   *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates int test data in [lo, hi] from a seed, filling arrays in parallel.
+ * The output is split into fixed chunks of CHUNK values. Each chunk gets its own SplittableRandom,
+ * split from the seed in chunk order. Chunks are filled on the common fork-join pool. The values
+ * depend only on the seed, the range, the distribution and the count, not on the number of threads,
+ * and write produces exactly the values that generate would.
+ * <p>
+ * Distributions, by name:
+ * <pre>
+ * uniform        every value in [lo, hi] equally likely
+ * zipf           lo + i has weight 1 / (i + 1)^ZIPF_EXPONENT, so a few small values dominate
+ * sorted         ascending: value i is drawn from the i-th of count equal slices of [lo, hi]
+ * reverse        sorted mirrored, descending from near hi to near lo
+ * nearlySorted   sorted, then 1 value in 100 swapped with one at most 8 places after it
+ * noHit          uniform over the even values only, so no pair sums to an odd k
+ * </pre>
+ * noHit is rejected for a range with no even value, that is lo == hi with lo odd, because every
+ * value it could return would lie outside [lo, hi].
+ * If the range holds at least count values, sorted and reverse hold no duplicates. With
+ * lo = 0 and hi = count - 1, sorted, reverse and nearlySorted are permutations of 0 to count - 1.
+ */
+public final class DataGenerator {
+    /**
+     * The distribution names accepted by generate and write.
+     */
+    public static final String[] DISTRIBUTIONS = {"uniform", "zipf", "sorted", "reverse", "nearlySorted", "noHit"};
+
+    /**
+     * Skew of the zipf distribution; 0.99 is the usual choice for key-value workloads.
+     */
+    public static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Values per chunk. Chunks are the unit of parallel work and each has its own generator.
+     */
+    public static final int CHUNK = 1 << 16;
+
+    private static final int WRITE_CHUNKS = 64;             // Chunks generated per file write, 16MB
+    private static final int SWAP_PERCENT = 1;              // Values swapped by nearlySorted
+    private static final int SWAP_DISTANCE = 8;             // How far nearlySorted moves a value
+
+    private final long seed;
+    private final int lo;
+    private final long span;            // hi - lo + 1, up to 2^32
+    private ZipfSampler zipf;           // Built by the first zipf request
+
+    /**
+     * Construct a generator.
+     * @param seed The seed; equal seeds and ranges give equal data.
+     * @param lo The smallest value (inclusive).
+     * @param hi The largest value (inclusive).
+     * @throws IllegalArgumentException if lo > hi.
+     */
+    public DataGenerator(long seed, int lo, int hi) {
+        if (lo > hi)
+            throw new IllegalArgumentException("The range [" + lo + ", " + hi + "] is empty.");
+        this.seed = seed;
+        this.lo = lo;
+        this.span = (long) hi - lo + 1;
+    }
+
+    /**
+     * Generate an array of values.
+     * @param distribution One of DISTRIBUTIONS.
+     * @param size The number of values.
+     * @return A new array of size values.
+     * @throws IllegalArgumentException if the distribution is unknown, size is negative, or
+     *         the distribution is noHit and the range holds no even value.
+     */
+    public int[] generate(String distribution, int size) {
+        int code = code(distribution);
+        if (size < 0)
+            throw new IllegalArgumentException("The size must not be negative.");
+
+        int[] a = new int[size];
+        SplittableRandom[] randoms = split(new SplittableRandom(seed), (size + CHUNK - 1) / CHUNK);
+
+        IntStream.range(0, randoms.length).parallel().forEach(c -> {
+            int from = c * CHUNK;
+            fill(code, a, from, Math.min(from + CHUNK, size), from, size, randoms[c]);
+        });
+
+        return a;
+    }
+
+    /**
+     * Write values straight to a file as little-endian ints, with no header, replacing any existing
+     * file. Memory use is bounded by one batch of chunks, so count may exceed any array size.
+     * @param distribution One of DISTRIBUTIONS.
+     * @param count The number of values.
+     * @param file The file to write.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if the distribution is unknown, count is negative, or
+     *         the distribution is noHit and the range holds no even value.
+     */
+    public void write(String distribution, long count, Path file) throws IOException {
+        int code = code(distribution);
+        if (count < 0)
+            throw new IllegalArgumentException("The count must not be negative.");
+
+        SplittableRandom root = new SplittableRandom(seed);
+        int[] batch = new int[WRITE_CHUNKS * CHUNK];
+        ByteBuffer bytes = ByteBuffer.allocateDirect(batch.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer ints = bytes.asIntBuffer();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (long first = 0; first < count; first += batch.length) {
+                long batchStart = first;
+                int n = (int) Math.min(batch.length, count - first);
+                SplittableRandom[] randoms = split(root, (n + CHUNK - 1) / CHUNK);
+
+                IntStream.range(0, randoms.length).parallel().forEach(c -> {
+                    int from = c * CHUNK;
+                    fill(code, batch, from, Math.min(from + CHUNK, n), batchStart + from, count, randoms[c]);
+                });
+
+                ints.clear();
+                ints.put(batch, 0, n);
+                bytes.clear().limit(n * Integer.BYTES);
+                while (bytes.hasRemaining())
+                    channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Internal method to look up a distribution and check that it can be generated.
+     * Builds the zipf sampler on first use, before any chunk is filled.
+     * @param distribution The distribution name.
+     * @return The index of the name in DISTRIBUTIONS.
+     */
+    private int code(String distribution) {
+        for (int i = 0; i < DISTRIBUTIONS.length; i++) {
+            if (!DISTRIBUTIONS[i].equals(distribution))
+                continue;
+            if (i == 1 && zipf == null)
+                zipf = new ZipfSampler(span, ZIPF_EXPONENT);
+            if (i == 5 && span == 1 && (lo & 1) != 0)
+                throw new IllegalArgumentException("noHit needs an even value, and [" + lo + ", " + lo + "] has none.");
+            return i;
+        }
+        throw new IllegalArgumentException("Unknown distribution " + distribution);
+    }
+
+    /**
+     * Internal method to take the next count generators from root, in order.
+     * @param root The generator to split.
+     * @param count The number of generators.
+     * @return The generators, one per chunk.
+     */
+    private static SplittableRandom[] split(SplittableRandom root, int count) {
+        SplittableRandom[] randoms = new SplittableRandom[count];
+        for (int i = 0; i < count; i++)
+            randoms[i] = root.split();
+        return randoms;
+    }
+
+    /**
+     * Internal method to fill one chunk.
+     * @param code The index of the distribution in DISTRIBUTIONS.
+     * @param a The array to fill.
+     * @param from The first index of the chunk in a.
+     * @param to One past the last index of the chunk in a.
+     * @param first The position of a[from] in the whole output.
+     * @param count The size of the whole output.
+     * @param random The generator of this chunk.
+     */
+    private void fill(int code, int[] a, int from, int to, long first, long count, SplittableRandom random) {
+        switch (code) {
+            case 0:
+                for (int i = from; i < to; i++)
+                    a[i] = (int) (lo + below(span, random));
+                break;
+            case 1:
+                for (int i = from; i < to; i++)
+                    a[i] = (int) (lo + zipf.sample(random) - 1);
+                break;
+            case 2:
+            case 3:
+            case 4:
+                // Position p gets a random value from the p-th of count equal slices of the range.
+                double slice = (double) span / count;
+                long start = sliceStart(first, slice);
+                for (int i = from; i < to; i++) {
+                    long end = sliceStart(first + i - from + 1, slice);
+                    long v = lo + start + (end > start ? below(end - start, random) : 0);
+                    a[i] = (int) (code == 3 ? 2L * lo + span - 1 - v : v);
+                    start = end;
+                }
+                if (code == 4)
+                    swapNearby(a, from, to, random);
+                break;
+            default:
+                long even = lo + (lo & 1);
+                long evens = (lo + span - 1 - even) / 2 + 1;
+                for (int i = from; i < to; i++)
+                    a[i] = (int) (even + 2 * below(evens, random));
+                break;
+        }
+    }
+
+    /**
+     * Internal method to draw a uniform value below a bound without dividing (Lemire, 2019).
+     * The bound times a random 32 bit value, divided by 2^32, is uniform but for a small bias;
+     * redrawing when the low half of the product is under (2^32 - bound) % bound removes the bias.
+     * That check needs a division only when the low half is below bound, which is rare for the
+     * bounds used here.
+     * @param bound The exclusive upper bound, between 1 and 2^32.
+     * @param random The generator of the chunk.
+     * @return A value in [0, bound).
+     */
+    private static long below(long bound, SplittableRandom random) {
+        long m = (random.nextInt() & 0xFFFFFFFFL) * bound;     // Below 2^64, so the bits are exact
+
+        if ((m & 0xFFFFFFFFL) < bound) {
+            long threshold = ((1L << 32) - bound) % bound;
+            while ((m & 0xFFFFFFFFL) < threshold)
+                m = (random.nextInt() & 0xFFFFFFFFL) * bound;
+        }
+
+        return m >>> 32;
+    }
+
+    /**
+     * Internal method to find where a slice of the sorted distribution starts. The starts never
+     * decrease with p, so neither do the values drawn from the slices.
+     * @param p The position of the slice in the whole output.
+     * @param slice The width of one slice, span / count.
+     * @return The offset from lo of the first value of the slice.
+     */
+    private long sliceStart(long p, double slice) {
+        return Math.min(span, (long) (p * slice));
+    }
+
+    /**
+     * Internal method to swap SWAP_PERCENT of the values of a chunk with values close after them.
+     * @param a The array.
+     * @param from The first index of the chunk.
+     * @param to One past the last index of the chunk.
+     * @param random The generator of the chunk.
+     */
+    private static void swapNearby(int[] a, int from, int to, SplittableRandom random) {
+        if (to - from < 2)
+            return;
+
+        for (int swaps = (to - from) * SWAP_PERCENT / 100; swaps > 0; swaps--) {
+            int i = from + random.nextInt(to - from - 1);
+            int j = Math.min(i + 1 + random.nextInt(SWAP_DISTANCE), to - 1);
+            int temp = a[i];
+            a[i] = a[j];
+            a[j] = temp;
+        }
+    }
+
+    // Sampler for the zipf distribution over 1 to n. Up to ALIAS_LIMIT values it uses an alias
+    // table (Vose, 1991): one uniform index and one comparison per sample. Larger ranges use
+    // rejection-inversion (Hormann and Derflinger, 1996), which needs no table but a few logs and
+    // exps per sample; setup and each sample take constant time for any n.
+    private static final class ZipfSampler {
+        static final int ALIAS_LIMIT = 1 << 20;
+
+        ZipfSampler(long n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            hIntegralX1 = hIntegral(1.5) - 1;
+            hIntegralN = hIntegral(n + 0.5);
+            s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+
+            if (n > ALIAS_LIMIT) {
+                probability = null;
+                alias = null;
+                return;
+            }
+
+            // Scale the weights to average 1, then pair each light value with a heavy one.
+            int size = (int) n;
+            probability = new double[size];
+            alias = new int[size];
+            double total = 0;
+            for (int i = 0; i < size; i++)
+                total += probability[i] = h(i + 1);
+
+            int[] light = new int[size], heavy = new int[size];
+            int lightCount = 0, heavyCount = 0;
+            for (int i = 0; i < size; i++) {
+                probability[i] *= size / total;
+                if (probability[i] < 1)
+                    light[lightCount++] = i;
+                else
+                    heavy[heavyCount++] = i;
+            }
+
+            while (lightCount > 0 && heavyCount > 0) {
+                int l = light[--lightCount], g = heavy[heavyCount - 1];
+                alias[l] = g;
+                probability[g] -= 1 - probability[l];
+                if (probability[g] < 1) {
+                    heavyCount--;
+                    light[lightCount++] = g;
+                }
+            }
+
+            // Whatever is left is 1 but for rounding.
+            while (lightCount > 0)
+                probability[light[--lightCount]] = 1;
+            while (heavyCount > 0)
+                probability[heavy[--heavyCount]] = 1;
+        }
+
+        final long n;
+        final double exponent;
+        final double hIntegralX1;
+        final double hIntegralN;
+        final double s;
+        final double[] probability;     // Chance of keeping index i rather than taking alias[i]; null above ALIAS_LIMIT
+        final int[] alias;
+
+        long sample(SplittableRandom random) {
+            if (probability != null) {
+                int i = (int) below(n, random);
+                return (random.nextDouble() < probability[i] ? i : alias[i]) + 1;
+            }
+
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+                    return k;
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return expm1OverX((1 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1, x * (1 - exponent));
+            return Math.exp(log1pOverX(t) * x);
+        }
+
+        private static double expm1OverX(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x / 2 * (1 + x / 3 * (1 + x / 4));
+        }
+
+        private static double log1pOverX(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - x / 4));
+        }
+    }
+}
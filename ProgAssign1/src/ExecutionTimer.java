@@ -5,10 +5,20 @@
    ****************************************************/
 
 public class ExecutionTimer {
+  private final LatencyHistogram histogram;
   private long start;
   private long end;
 
   public ExecutionTimer() {
+    this(null);
+  }
+
+  /**
+   * Construct a timer that records every start/end duration into a histogram.
+   * @param histogram The histogram to record into, for example Metrics.timer("name"), or null for none.
+   */
+  public ExecutionTimer(LatencyHistogram histogram) {
+    this.histogram = histogram;
     reset();
   }
 
@@ -18,6 +28,8 @@ public class ExecutionTimer {
 
   public void end() {
     end = System.nanoTime();
+    if (histogram != null)
+      histogram.record(duration());
   }
 
   public long duration(){
@@ -32,4 +44,4 @@ public class ExecutionTimer {
   public void print() {
     System.out.print(duration()+",");
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,384 @@
+/****************************************************
+ *  Program Title: External Pair Sum                *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pair sum over int files too large for the heap, such as those written by DataGenerator.write.
+ * A file holds little-endian ints with no header.
+ * <p>
+ * find sorts the file externally, then walks the sorted file with two pointers: one reads forward
+ * from the smallest value and one reads backward from the largest. It returns the same pair as
+ * PairSumEngine.logarithmic, namely the smallest value x whose complement k - x is another element.
+ * Sums are compared as longs, so no match comes from int overflow.
+ * <p>
+ * Every phase stays within the memory budget given to the constructor, and every file is read
+ * and written sequentially:
+ * <ul>
+ * <li>Run formation maps the input one run at a time. It sorts each run in one int[] the size of
+ *     the budget and maps the run's own temporary file to write it.</li>
+ * <li>Each merge pass merges as many runs as the budget allows, giving each run a read buffer of at
+ *     least MIN_BUFFER_BYTES and keeping one more for the output. Passes repeat until one run is left.</li>
+ * <li>The two-pointer search splits the budget between its forward and backward buffers.</li>
+ * </ul>
+ */
+public final class ExternalPairSum {
+    /**
+     * Memory budget used by PAssignOne when none is given.
+     */
+    public static final long DEFAULT_MEMORY_BYTES = 64L << 20;
+
+    /**
+     * Smallest read or write buffer used by a merge. Larger buffers mean fewer, longer reads.
+     */
+    public static final int MIN_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Smallest memory budget accepted: a merge of two runs plus its output.
+     */
+    public static final long MIN_MEMORY_BYTES = 3L * MIN_BUFFER_BYTES;
+
+    private static final int MAX_RUN_INTS = 1 << 28;            // One mapping holds at most 2GB
+    private static final int MAX_BUFFER_BYTES = 1 << 30;
+
+    private final long memoryBytes;
+    private final Path tempDirectory;
+
+    /**
+     * Construct a pair sum with a memory budget.
+     * @param memoryBytes The most memory, in bytes, that sort and search may use for data.
+     * @param tempDirectory Where the sorted runs are written; it needs free space for twice the input.
+     * @throws IllegalArgumentException if memoryBytes is below MIN_MEMORY_BYTES.
+     */
+    public ExternalPairSum(long memoryBytes, Path tempDirectory) {
+        if (memoryBytes < MIN_MEMORY_BYTES)
+            throw new IllegalArgumentException("The memory budget must be at least " + MIN_MEMORY_BYTES + " bytes.");
+        this.memoryBytes = memoryBytes;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Find two elements of an int file that add to k. The file is not modified.
+     * @param input The int file.
+     * @param k The value two elements must add to.
+     * @return The matching pair {x, k - x} with the smallest x, or null if there is none.
+     * @throws IOException if a file cannot be read or written, or input is not a whole number of ints.
+     */
+    public int[] find(Path input, int k) throws IOException {
+        Path sorted = Files.createTempFile(tempDirectory, "pairsum", ".sorted");
+
+        try {
+            sort(input, sorted);
+            return searchSorted(sorted, k);
+        }
+        finally {
+            Files.deleteIfExists(sorted);
+        }
+    }
+
+    /**
+     * Sort an int file into another, replacing any existing output file.
+     * @param input The int file to sort. It is not modified.
+     * @param output The file to write the sorted ints to.
+     * @throws IOException if a file cannot be read or written, or input is not a whole number of ints.
+     */
+    public void sort(Path input, Path output) throws IOException {
+        List<Path> runs = new ArrayList<>();
+
+        try {
+            formRuns(input, runs);
+
+            // Merge the oldest runs first and queue the result, so each int is rewritten once per level.
+            while (runs.size() > 1) {
+                int fanIn = (int) Math.min(runs.size(), memoryBytes / MIN_BUFFER_BYTES - 1);
+                List<Path> group = new ArrayList<>(runs.subList(0, fanIn));
+                Path merged = newRun(runs);
+                merge(group, merged);
+                for (Path run : group)
+                    Files.delete(run);
+                runs.removeAll(group);
+            }
+
+            if (runs.isEmpty())
+                Files.write(output, new byte[0]);
+            else
+                Files.move(runs.remove(0), output, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            for (Path run : runs)
+                Files.deleteIfExists(run);
+        }
+    }
+
+    /**
+     * Find two elements of a sorted int file that add to k, reading the file from both ends.
+     * @param sorted An int file in ascending order, as written by sort.
+     * @param k The value two elements must add to.
+     * @return The matching pair {x, k - x} with the smallest x, or null if there is none.
+     * @throws IOException if the file cannot be read or is not a whole number of ints.
+     */
+    public int[] searchSorted(Path sorted, int k) throws IOException {
+        try (FileChannel channel = FileChannel.open(sorted, StandardOpenOption.READ)) {
+            long size = checkedSize(channel, sorted);
+            if (size < 2L * Integer.BYTES)
+                return null;
+
+            int bufferBytes = bufferBytes(memoryBytes / 2);
+            IntReader front = new IntReader(channel, 0, size, bufferBytes, false);
+            IntReader back = new IntReader(channel, 0, size, bufferBytes, true);
+            long lo = 0, hi = size / Integer.BYTES - 1;
+            int x = front.next(), y = back.next();
+
+            while (lo < hi) {
+                long sum = (long) x + y;
+                if (sum == k)
+                    return new int[] {x, y};
+
+                if (sum < k) {
+                    if (++lo < hi)
+                        x = front.next();
+                }
+                else if (lo < --hi)
+                    y = back.next();
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Internal method to split the input into sorted runs of at most one budget each.
+     * @param input The int file.
+     * @param runs The list to add the run files to, so they are deleted if anything fails.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private void formRuns(Path input, List<Path> runs) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long count = checkedSize(in, input) / Integer.BYTES;
+            int runInts = (int) Math.min(Math.min(memoryBytes / Integer.BYTES, MAX_RUN_INTS), count);
+            int[] run = new int[runInts];
+
+            for (long first = 0; first < count; first += runInts) {
+                int n = (int) Math.min(runInts, count - first);
+                in.map(FileChannel.MapMode.READ_ONLY, first * Integer.BYTES, (long) n * Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(run, 0, n);
+
+                // Arrays.sort sorts in place; parallelSort would need a second array the size of the run.
+                Arrays.sort(run, 0, n);
+
+                try (FileChannel out = FileChannel.open(newRun(runs), StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    out.map(FileChannel.MapMode.READ_WRITE, 0, (long) n * Integer.BYTES)
+                            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(run, 0, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Internal method to merge sorted runs into one, through a heap of the runs' next values.
+     * @param group The runs to merge.
+     * @param output The file to write the merged run to.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private void merge(List<Path> group, Path output) throws IOException {
+        int bufferBytes = bufferBytes(memoryBytes / (group.size() + 1));
+        List<FileChannel> channels = new ArrayList<>();
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntReader[] readers = new IntReader[group.size()];
+            int[] heads = new int[readers.length];
+            int[] heap = new int[readers.length];       // Reader indexes, smallest head first
+            int heapSize = 0;
+
+            for (int r = 0; r < readers.length; r++) {
+                FileChannel channel = FileChannel.open(group.get(r), StandardOpenOption.READ);
+                channels.add(channel);
+                readers[r] = new IntReader(channel, 0, channel.size(), bufferBytes, false);
+                if (readers[r].hasNext()) {
+                    heads[r] = readers[r].next();
+                    heap[heapSize] = r;
+                    siftUp(heap, heapSize++, heads);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+            while (heapSize > 0) {
+                int r = heap[0];
+                if (!buffer.hasRemaining())
+                    drain(out, buffer);
+                buffer.putInt(heads[r]);
+
+                if (readers[r].hasNext())
+                    heads[r] = readers[r].next();
+                else
+                    heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize, heads);
+            }
+            drain(out, buffer);
+        }
+        finally {
+            for (FileChannel channel : channels)
+                channel.close();
+        }
+    }
+
+    /**
+     * Internal method to move the last heap entry up to its place.
+     * @param heap The reader indexes.
+     * @param i The index of the entry in heap.
+     * @param heads The next value of each reader.
+     */
+    private static void siftUp(int[] heap, int i, int[] heads) {
+        int r = heap[i];
+
+        while (i > 0 && heads[heap[(i - 1) / 2]] > heads[r]) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+
+        heap[i] = r;
+    }
+
+    /**
+     * Internal method to move the first heap entry down to its place.
+     * @param heap The reader indexes.
+     * @param size The number of entries in heap.
+     * @param heads The next value of each reader.
+     */
+    private static void siftDown(int[] heap, int size, int[] heads) {
+        if (size == 0)
+            return;
+
+        int r = heap[0];
+        int i = 0;
+
+        for (int child = 1; child < size; child = 2 * i + 1) {
+            if (child + 1 < size && heads[heap[child + 1]] < heads[heap[child]])
+                child++;
+            if (heads[heap[child]] >= heads[r])
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = r;
+    }
+
+    /**
+     * Internal method to create an empty run file and add it to the list of runs.
+     * @param runs The list of runs.
+     * @return The new file.
+     * @throws IOException if the file cannot be created.
+     */
+    private Path newRun(List<Path> runs) throws IOException {
+        Path run = Files.createTempFile(tempDirectory, "pairsum", ".run");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Internal method to get the size of an int file.
+     * @param channel The open file.
+     * @param file The file, for the error message.
+     * @return The size in bytes.
+     * @throws IOException if the size is not a whole number of ints.
+     */
+    private static long checkedSize(FileChannel channel, Path file) throws IOException {
+        long size = channel.size();
+        if (size % Integer.BYTES != 0)
+            throw new IOException(file + " is not a whole number of ints.");
+        return size;
+    }
+
+    /**
+     * Internal method to round a share of the budget to a buffer size.
+     * @param bytes The share of the budget.
+     * @return A whole number of ints, at most MAX_BUFFER_BYTES.
+     */
+    private static int bufferBytes(long bytes) {
+        return (int) Math.min(bytes, MAX_BUFFER_BYTES) & -Integer.BYTES;
+    }
+
+    /**
+     * Internal method to write out everything in a buffer and make it empty again.
+     * @param channel The channel to write to.
+     * @param buffer The buffer, positioned after its last byte.
+     * @throws IOException if the write fails.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Reads the ints of a region of a file through one buffer, forward from the start or backward from the end
+    private static final class IntReader {
+        IntReader(FileChannel channel, long start, long end, int bufferBytes, boolean backward) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.backward = backward;
+            buffer = ByteBuffer.allocateDirect((int) Math.min(bufferBytes, end - start)).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+        }
+
+        final FileChannel channel;
+        final boolean backward;
+        final ByteBuffer buffer;
+        long start;             // Unread bytes are start to end, less what is left in the buffer
+        long end;
+        int index;              // Next byte to return from the buffer when reading backward
+
+        boolean hasNext() {
+            return start < end || (backward ? index > 0 : buffer.hasRemaining());
+        }
+
+        int next() throws IOException {
+            if (backward) {
+                if (index == 0)
+                    fill();
+                index -= Integer.BYTES;
+                return buffer.getInt(index);
+            }
+
+            if (!buffer.hasRemaining())
+                fill();
+            return buffer.getInt();
+        }
+
+        private void fill() throws IOException {
+            int n = (int) Math.min(buffer.capacity(), end - start);
+            if (n == 0)
+                throw new IOException("Read past the end of the run.");
+
+            long position = backward ? end - n : start;
+            if (backward)
+                end -= n;
+            else
+                start += n;
+
+            buffer.clear().limit(n);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer, position + buffer.position()) < 0)
+                    throw new IOException("The file was truncated while it was read.");
+            buffer.flip();
+            index = n;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/****************************************************
+ *  Program Title: Int Hash Set                     *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash set of primitive ints with linear probing.
+ * No value is ever boxed. Zero marks an empty slot, so membership of zero is kept in a separate flag.
+ * The table is capped at MAX_CAPACITY slots, so the set holds at most MAX_SIZE values.
+ */
+public class IntHashSet {
+    /**
+     * Most values a set can hold: half of the largest table, whose 2^30 ints take 4GB.
+     */
+    public static final int MAX_SIZE = 1 << 29;
+
+    private static final int EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] table;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Construct a set that can hold expectedSize values without growing.
+     * @param expectedSize The number of values expected to be added; sizes above MAX_SIZE are capped.
+     */
+    public IntHashSet(int expectedSize) {
+        // Keep the load factor at or below 0.5 so probe sequences stay short.
+        int capacity = MIN_CAPACITY;
+        while (capacity < (long) expectedSize * 2 && capacity < MAX_CAPACITY)
+            capacity <<= 1;
+
+        table = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add a value to the set; duplicates are ignored.
+     * @param x the value to add.
+     * @return true if the value was not already in the set.
+     * @throws IllegalStateException if x is new and the set already holds MAX_SIZE values.
+     */
+    public boolean add(int x) {
+        if (x == EMPTY) {
+            if (containsEmpty)
+                return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int slot = hash(x) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == x)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+
+        if ((size + 1) * 2L > table.length)
+            slot = grow(x);
+
+        table[slot] = x;
+        size++;
+        return true;
+    }
+
+    /**
+     * Test if a value is in the set.
+     * @param x the value to search for.
+     * @return true if x was added to the set.
+     */
+    public boolean contains(int x) {
+        if (x == EMPTY)
+            return containsEmpty;
+
+        int slot = hash(x) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == x)
+                return true;
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of distinct values in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every value from the set, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    /**
+     * Internal method to double the table and reinsert every value, before x is added.
+     * @param x the new value about to be added.
+     * @return the free slot for x in the new table.
+     * @throws IllegalStateException if the table is already MAX_CAPACITY slots.
+     */
+    private int grow(int x) {
+        if (table.length >= MAX_CAPACITY)
+            throw new IllegalStateException("IntHashSet cannot hold more than " + MAX_SIZE + " values.");
+
+        int[] old = table;
+        table = new int[old.length * 2];
+        mask = table.length - 1;
+
+        for (int y : old) {
+            if (y == EMPTY)
+                continue;
+            int slot = hash(y) & mask;
+            while (table[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            table[slot] = y;
+        }
+
+        int slot = hash(x) & mask;
+        while (table[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Internal method to spread the bits of x. Consecutive ints would otherwise fill
+     * consecutive slots and form long probe runs.
+     * @param x the value to hash.
+     * @return the mixed hash of x.
+     */
+    private static int hash(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
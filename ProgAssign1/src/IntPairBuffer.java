@@ -0,0 +1,99 @@
+/****************************************************
+ *  Program Title: Int Pair Buffer                  *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of int pairs stored interleaved in a single int[],
+ * so a pair costs 8 bytes and no object.
+ */
+public class IntPairBuffer {
+    /**
+     * Most pairs a buffer can hold; the backing array stays within the largest array size the JVM allows.
+     */
+    public static final int MAX_PAIRS = (Integer.MAX_VALUE - 8) / 2;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] data;     // first of pair i at 2 * i, second at 2 * i + 1
+    private int size;       // Number of pairs
+
+    /**
+     * Construct an empty buffer.
+     */
+    public IntPairBuffer() {
+        data = new int[2 * DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Append a pair to the buffer.
+     * @param first the first value of the pair.
+     * @param second the second value of the pair.
+     * @throws IllegalStateException if the buffer already holds MAX_PAIRS pairs.
+     */
+    public void add(int first, int second) {
+        if (2 * size == data.length) {
+            if (size == MAX_PAIRS)
+                throw new IllegalStateException("IntPairBuffer cannot hold more than " + MAX_PAIRS + " pairs.");
+            // Double, but never past MAX_PAIRS; the long product cannot overflow.
+            long needed = 2L * size + 2;
+            data = Arrays.copyOf(data, (int) Math.min(2L * MAX_PAIRS, Math.max(needed, 2L * data.length)));
+        }
+
+        data[2 * size] = first;
+        data[2 * size + 1] = second;
+        size++;
+    }
+
+    /**
+     * @param i index of the pair.
+     * @return the first value of pair i.
+     */
+    public int first(int i) {
+        checkIndex(i);
+        return data[2 * i];
+    }
+
+    /**
+     * @param i index of the pair.
+     * @return the second value of pair i.
+     */
+    public int second(int i) {
+        checkIndex(i);
+        return data[2 * i + 1];
+    }
+
+    /**
+     * @return the number of pairs in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test if the buffer holds no pairs.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a copy of the pairs, interleaved as {first0, second0, first1, second1, ...}.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(data, 2 * size);
+    }
+
+    /**
+     * Internal method to reject indexes past the last pair.
+     * @param i index of the pair.
+     */
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Pair " + i + " of " + size);
+    }
+}
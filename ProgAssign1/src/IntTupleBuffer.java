@@ -0,0 +1,139 @@
+/****************************************************
+ *  Program Title: Int Tuple Buffer                 *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of fixed-length int tuples stored back to back in a single int[],
+ * so a tuple costs 4 bytes per value and no object. IntPairBuffer is the two value case.
+ */
+public class IntTupleBuffer {
+    /**
+     * Most values a buffer can hold across all its tuples, the largest array size the JVM allows.
+     */
+    public static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int arity;    // Values per tuple
+    private int[] data;         // Value j of tuple i at arity * i + j
+    private int size;           // Number of tuples
+
+    /**
+     * Construct an empty buffer.
+     * @param arity the number of values in each tuple.
+     * @throws IllegalArgumentException if arity is not positive.
+     */
+    public IntTupleBuffer(int arity) {
+        if (arity <= 0)
+            throw new IllegalArgumentException("A tuple needs at least one value.");
+        this.arity = arity;
+        data = new int[arity * DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Append a tuple to the buffer. The values are copied, so the caller may reuse the array.
+     * @param tuple an array holding at least arity values.
+     * @throws IllegalStateException if the tuple would take the buffer past MAX_VALUES values.
+     */
+    public void add(int[] tuple) {
+        if (arity * size == data.length)
+            ensureCapacity((long) arity * (size + 1));
+
+        System.arraycopy(tuple, 0, data, arity * size, arity);
+        size++;
+    }
+
+    /**
+     * Append every tuple of another buffer, in order.
+     * @param other a buffer of the same arity.
+     * @throws IllegalArgumentException if the arities differ.
+     * @throws IllegalStateException if the tuples would take the buffer past MAX_VALUES values.
+     */
+    public void addAll(IntTupleBuffer other) {
+        if (other.arity != arity)
+            throw new IllegalArgumentException("Cannot add tuples of " + other.arity + " values to tuples of " + arity + ".");
+
+        ensureCapacity((long) arity * ((long) size + other.size));
+
+        System.arraycopy(other.data, 0, data, arity * size, arity * other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param i index of the tuple.
+     * @param j position of the value in the tuple.
+     * @return value j of tuple i.
+     */
+    public int get(int i, int j) {
+        checkIndex(i);
+        if (j < 0 || j >= arity)
+            throw new IndexOutOfBoundsException("Value " + j + " of a tuple of " + arity);
+        return data[arity * i + j];
+    }
+
+    /**
+     * @param i index of the tuple.
+     * @return a copy of tuple i.
+     */
+    public int[] tuple(int i) {
+        checkIndex(i);
+        return Arrays.copyOfRange(data, arity * i, arity * (i + 1));
+    }
+
+    /**
+     * @return the number of values in each tuple.
+     */
+    public int arity() {
+        return arity;
+    }
+
+    /**
+     * @return the number of tuples in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test if the buffer holds no tuples.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a copy of the tuples, back to back as {tuple0 values, tuple1 values, ...}.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(data, arity * size);
+    }
+
+    /**
+     * Internal method to grow the backing array to hold at least needed values, doubling where
+     * possible but never past MAX_VALUES.
+     * @param needed the number of values the array must hold.
+     */
+    private void ensureCapacity(long needed) {
+        if (needed <= data.length)
+            return;
+        if (needed > MAX_VALUES)
+            throw new IllegalStateException("IntTupleBuffer cannot hold more than " + MAX_VALUES + " values.");
+
+        long capacity = Math.min(MAX_VALUES, Math.max(needed, Math.max(arity * DEFAULT_CAPACITY, 2L * data.length)));
+        data = Arrays.copyOf(data, (int) capacity);
+    }
+
+    /**
+     * Internal method to reject indexes past the last tuple.
+     * @param i index of the tuple.
+     */
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Tuple " + i + " of " + size);
+    }
+}
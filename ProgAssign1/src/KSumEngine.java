@@ -0,0 +1,463 @@
+/****************************************************
+ *  Program Title: K-Sum Engine                     *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Finds 2, 3 or 4 elements of an int array that add to k, building on the sorted array of
+ * PairSumEngine.logarithmic. The array is sorted in place. Then at most arity copies of each value
+ * are kept, because no tuple uses more. The search runs an outer loop over the first element of
+ * the tuple:
+ * <ul>
+ * <li>2SUM binary searches for the complement of each element, O(n*log(n)).</li>
+ * <li>3SUM sweeps two pointers over the rest of the array for each element, O(n^2).</li>
+ * <li>4SUM meets in the middle. Every pair sum is sorted once. For each pair (a, b), a binary
+ *     search finds the pairs (c, d) with b &lt; c that complete it. O(n^2*log(n)) time and
+ *     8 bytes of memory per pair, which limits it to MAX_FOUR_SUM_LENGTH values.</li>
+ * </ul>
+ * Tuples are values in ascending order, taken from distinct elements. Sums are computed in longs,
+ * so no match comes from int overflow. find returns the lexicographically smallest tuple;
+ * findAll returns every distinct tuple of values once, in lexicographic order.
+ * <p>
+ * The parallel versions sort with Arrays.parallelSort and split the outer loop across the common
+ * fork-join pool. They return the same answers as the serial versions. Once a worker finds a tuple,
+ * the workers stop at the first element past it.
+ */
+public final class KSumEngine {
+    /**
+     * Largest array 4SUM accepts, counted after keeping four copies of each value. Every pair sum
+     * is held as a long, so the limit needs 4GB of pairs.
+     */
+    public static final int MAX_FOUR_SUM_LENGTH = 1 << 15;
+
+    private static final int INDEX_BITS = 15;                   // Bits per element index in a pair key
+    private static final long SUM_OFFSET = 1L << 32;            // Makes every pair sum non-negative
+
+    /**
+     * Outer iterations a parallel worker handles without splitting further, for 2SUM and for the
+     * O(n) per iteration 3SUM and 4SUM.
+     */
+    private static final int PARALLEL_PROBE_THRESHOLD = 1 << 15;
+    private static final int PARALLEL_SWEEP_THRESHOLD = 16;
+
+    private KSumEngine() {
+    }
+
+    /**
+     * Find the lexicographically smallest tuple of arity elements that add to k.
+     * @param a An array of integers. The array is sorted by this method.
+     * @param k The value the elements must add to.
+     * @param arity The number of elements, 2, 3 or 4.
+     * @param parallel true to sort and search on the common fork-join pool.
+     * @return The matching values in ascending order, or null if there are none.
+     * @throws IllegalArgumentException if arity is not 2, 3 or 4, or a 4SUM array is too large.
+     */
+    public static int[] find(int[] a, int k, int arity, boolean parallel) {
+        Search search = new Search(a, k, arity, parallel);
+
+        if (parallel) {
+            AtomicReference<Match> best = new AtomicReference<>(Match.NONE);
+            ForkJoinPool.commonPool().invoke(new FindTask(search, 0, search.x.length, best));
+            return best.get().tuple;
+        }
+
+        for (int i = 0; i < search.x.length && !search.pastLastFirst(i); i++) {
+            if (!isFirstCopy(search.x, i, -1))
+                continue;
+            int[] tuple = search.first(i);
+            if (tuple != null)
+                return tuple;
+        }
+
+        return null;
+    }
+
+    /**
+     * Find every distinct tuple of values, each from arity elements, that adds to k.
+     * @param a An array of integers. The array is sorted by this method.
+     * @param k The value the elements must add to.
+     * @param arity The number of elements, 2, 3 or 4.
+     * @param parallel true to sort and search on the common fork-join pool.
+     * @return The tuples, each in ascending order, in lexicographic order; empty if there are none.
+     * @throws IllegalArgumentException if arity is not 2, 3 or 4, or a 4SUM array is too large.
+     */
+    public static IntTupleBuffer findAll(int[] a, int k, int arity, boolean parallel) {
+        Search search = new Search(a, k, arity, parallel);
+
+        if (parallel)
+            return ForkJoinPool.commonPool().invoke(new FindAllTask(search, 0, search.x.length));
+
+        IntTupleBuffer tuples = new IntTupleBuffer(arity);
+        search.all(0, search.x.length, tuples);
+        return tuples;
+    }
+
+    /**
+     * Internal method to test that an element is the first copy of its value after another element.
+     * Only first copies start a new tuple, so no tuple of values is reported twice.
+     * @param x An array in ascending order.
+     * @param i The index of the element.
+     * @param previous The index of the element before it in the tuple, or -1 for the first element.
+     * @return true if i follows previous directly or holds a different value than i - 1.
+     */
+    private static boolean isFirstCopy(int[] x, int i, int previous) {
+        return i == previous + 1 || x[i] != x[i - 1];
+    }
+
+    /**
+     * Internal method to find the first index in [from, to) whose value is not less than key.
+     * @param a An array in ascending order.
+     * @param key The value to search for.
+     * @param from The first index to search.
+     * @param to One past the last index to search.
+     * @return The index, or to if every value is less than key.
+     */
+    private static int lowerBound(long[] a, long key, int from, int to) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < key)
+                from = mid + 1;
+            else
+                to = mid;
+        }
+
+        return from;
+    }
+
+    /**
+     * Internal method to find the first index in [from, to) whose value is not less than key.
+     * @param a An array in ascending order.
+     * @param key The value to search for.
+     * @param from The first index to search.
+     * @param to One past the last index to search.
+     * @return The index, or to if every value is less than key.
+     */
+    private static int lowerBound(int[] a, long key, int from, int to) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < key)
+                from = mid + 1;
+            else
+                to = mid;
+        }
+
+        return from;
+    }
+
+    // The prepared array and the per first element search of one query
+    private static final class Search {
+        Search(int[] a, int k, int arity, boolean parallel) {
+            if (arity < 2 || arity > 4)
+                throw new IllegalArgumentException("Only 2SUM, 3SUM and 4SUM are supported, not " + arity + "SUM.");
+
+            if (parallel)
+                Arrays.parallelSort(a);
+            else
+                Arrays.sort(a);
+
+            this.k = k;
+            this.arity = arity;
+            x = keepCopies(a, arity);
+            pairs = (arity == 4) ? pairSums(x, parallel) : null;
+        }
+
+        final long k;
+        final int arity;
+        final int[] x;          // The sorted array with at most arity copies of each value
+        final long[] pairs;     // 4SUM only: sorted pair keys, see pairSums
+
+        /**
+         * Internal method to test whether the tuples have run out. Every element of a tuple is at least
+         * the first, so once arity copies of x[i] add to more than k, no tuple starts at i or later.
+         * @param i The index of the first element.
+         * @return true if no tuple starts at i or later.
+         */
+        boolean pastLastFirst(int i) {
+            return (long) arity * x[i] > k;
+        }
+
+        /**
+         * @return the number of first elements a parallel worker tries without splitting.
+         */
+        int parallelThreshold() {
+            return (arity == 2) ? PARALLEL_PROBE_THRESHOLD : PARALLEL_SWEEP_THRESHOLD;
+        }
+
+        /**
+         * Internal method to find the smallest tuple that starts at element i.
+         * @param i The index of the first element.
+         * @return The tuple, or null if none starts at i.
+         */
+        int[] first(int i) {
+            switch (arity) {
+                case 2:
+                    int j = complement(i, k - x[i]);
+                    return (j < 0) ? null : new int[] {x[i], x[j]};
+                case 3:
+                    long target = k - x[i];
+                    for (int lo = i + 1, hi = x.length - 1; lo < hi; ) {
+                        long sum = (long) x[lo] + x[hi];
+                        if (sum == target)
+                            return new int[] {x[i], x[lo], x[hi]};
+                        if (sum < target)
+                            lo++;
+                        else
+                            hi--;
+                    }
+                    return null;
+                default:
+                    for (int b = i + 1; b < x.length - 2 && (long) x[i] + 3L * x[b] <= k; b++) {
+                        int p = pairsAfter(b, k - x[i] - x[b]);
+                        if (p >= 0)
+                            return new int[] {x[i], x[b], x[firstOf(pairs[p])], x[secondOf(pairs[p])]};
+                    }
+                    return null;
+            }
+        }
+
+        /**
+         * Internal method to add every distinct tuple whose first element is in [from, to), in order.
+         * @param from The index of the first element to try.
+         * @param to One past the index of the last element to try.
+         * @param tuples The buffer to add the tuples to.
+         */
+        void all(int from, int to, IntTupleBuffer tuples) {
+            int[] tuple = new int[arity];
+
+            for (int i = from; i < to && !pastLastFirst(i); i++) {
+                if (!isFirstCopy(x, i, -1))
+                    continue;
+                tuple[0] = x[i];
+
+                switch (arity) {
+                    case 2:
+                        int j = complement(i, k - x[i]);
+                        if (j >= 0) {
+                            tuple[1] = x[j];
+                            tuples.add(tuple);
+                        }
+                        break;
+                    case 3:
+                        long target = k - x[i];
+                        for (int lo = i + 1, hi = x.length - 1; lo < hi; ) {
+                            long sum = (long) x[lo] + x[hi];
+                            if (sum < target)
+                                lo++;
+                            else if (sum > target)
+                                hi--;
+                            else {
+                                tuple[1] = x[lo];
+                                tuple[2] = x[hi];
+                                tuples.add(tuple);
+                                // Step both pointers past their values so each tuple is reported once.
+                                for (lo++; lo < hi && x[lo] == x[lo - 1]; lo++)
+                                    ;
+                                for (hi--; lo < hi && x[hi] == x[hi + 1]; hi--)
+                                    ;
+                            }
+                        }
+                        break;
+                    default:
+                        for (int b = i + 1; b < x.length - 2 && (long) x[i] + 3L * x[b] <= k; b++) {
+                            if (!isFirstCopy(x, b, i))
+                                continue;
+                            tuple[1] = x[b];
+                            long target4 = k - x[i] - x[b];
+                            for (int p = pairsAfter(b, target4); p >= 0 && p < pairs.length
+                                    && (pairs[p] >>> 2 * INDEX_BITS) == target4 + SUM_OFFSET; p++) {
+                                int c = firstOf(pairs[p]), d = secondOf(pairs[p]);
+                                if (isFirstCopy(x, c, b) && isFirstCopy(x, d, c)) {
+                                    tuple[2] = x[c];
+                                    tuple[3] = x[d];
+                                    tuples.add(tuple);
+                                }
+                            }
+                        }
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Internal method to binary search for the complement of element i among the elements after it.
+         * @param i The index of the element.
+         * @param target The value to search for.
+         * @return The index of the first copy of target after i, or -1 if there is none.
+         */
+        private int complement(int i, long target) {
+            int j = lowerBound(x, target, i + 1, x.length);
+            return (j < x.length && x[j] == target) ? j : -1;
+        }
+
+        /**
+         * Internal method to find the first pair (c, d) with b &lt; c that adds to target.
+         * @param b The index the pair must start after.
+         * @param target The sum of the pair.
+         * @return The index of the pair in pairs, or -1 if there is none.
+         */
+        private int pairsAfter(int b, long target) {
+            long sum = target + SUM_OFFSET;
+            if (sum < 0 || sum >= 2 * SUM_OFFSET)
+                return -1;
+
+            int p = lowerBound(pairs, (sum << 2 * INDEX_BITS) | ((long) (b + 1) << INDEX_BITS), 0, pairs.length);
+            return (p < pairs.length && (pairs[p] >>> 2 * INDEX_BITS) == sum) ? p : -1;
+        }
+
+        /**
+         * Internal method to keep at most copies copies of each value of a sorted array.
+         * @param sorted An array in ascending order.
+         * @param copies The most copies of one value to keep.
+         * @return A new array in ascending order.
+         */
+        private static int[] keepCopies(int[] sorted, int copies) {
+            int[] kept = new int[sorted.length];
+            int m = 0;
+
+            for (int v : sorted)
+                if (m < copies || kept[m - copies] != v)
+                    kept[m++] = v;
+
+            return Arrays.copyOf(kept, m);
+        }
+
+        /**
+         * Internal method to build the sorted key of every pair i &lt; j. A key holds the pair sum plus
+         * SUM_OFFSET in its top 33 bits, then i and j in INDEX_BITS each, so sorting the keys sorts the
+         * pairs by sum, then by i, then by j.
+         * @param x The array, at most MAX_FOUR_SUM_LENGTH long.
+         * @param parallel true to fill and sort the keys on the common fork-join pool.
+         * @return The sorted keys.
+         */
+        private static long[] pairSums(int[] x, boolean parallel) {
+            int n = x.length;
+            if (n > MAX_FOUR_SUM_LENGTH)
+                throw new IllegalArgumentException("4SUM holds every pair sum, so it takes at most " + MAX_FOUR_SUM_LENGTH
+                        + " values after keeping four copies of each; this array has " + n + ".");
+
+            long[] keys = new long[n * (n - 1) / 2];
+            IntStream rows = IntStream.range(0, Math.max(n - 1, 0));
+
+            (parallel ? rows.parallel() : rows).forEach(i -> {
+                int p = i * n - i * (i + 1) / 2;        // Pairs in the rows before i
+                for (int j = i + 1; j < n; j++)
+                    keys[p++] = ((long) x[i] + x[j] + SUM_OFFSET) << 2 * INDEX_BITS | (long) i << INDEX_BITS | j;
+            });
+
+            if (parallel)
+                Arrays.parallelSort(keys);
+            else
+                Arrays.sort(keys);
+            return keys;
+        }
+
+        private static int firstOf(long key) {
+            return (int) (key >>> INDEX_BITS) & ((1 << INDEX_BITS) - 1);
+        }
+
+        private static int secondOf(long key) {
+            return (int) key & ((1 << INDEX_BITS) - 1);
+        }
+    }
+
+    // The smallest tuple found so far and the index of its first element
+    private static final class Match {
+        static final Match NONE = new Match(Integer.MAX_VALUE, null);
+
+        Match(int first, int[] tuple) {
+            this.first = first;
+            this.tuple = tuple;
+        }
+
+        final int first;
+        final int[] tuple;
+    }
+
+    /**
+     * Fork-join task that searches for tuples starting at each element in [from, to).
+     * Ranges larger than the search's threshold are split in half.
+     */
+    private static class FindTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int from;
+        private final int to;
+        private final AtomicReference<Match> best;      // Shared result; only ever replaced by a smaller first index
+
+        FindTask(Search search, int from, int to, AtomicReference<Match> best) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+            this.best = best;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > search.parallelThreshold()) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FindTask(search, from, mid, best),
+                          new FindTask(search, mid, to, best));
+                return;
+            }
+
+            // A tuple starting past the best one found so far can never replace it.
+            for (int i = from; i < to && i < best.get().first && !search.pastLastFirst(i); i++) {
+                if (!isFirstCopy(search.x, i, -1))
+                    continue;
+
+                int[] tuple = search.first(i);
+                if (tuple != null) {
+                    Match match = new Match(i, tuple);
+                    for (Match current = best.get(); i < current.first; current = best.get())
+                        if (best.compareAndSet(current, match))
+                            break;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that collects the tuples starting at each element in [from, to).
+     * Ranges larger than the search's threshold are split in half and the halves joined in order.
+     */
+    private static class FindAllTask extends RecursiveTask<IntTupleBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        FindAllTask(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntTupleBuffer compute() {
+            if (to - from > search.parallelThreshold()) {
+                int mid = (from + to) >>> 1;
+                FindAllTask low = new FindAllTask(search, from, mid);
+                low.fork();
+                IntTupleBuffer high = new FindAllTask(search, mid, to).compute();
+                IntTupleBuffer tuples = low.join();
+                tuples.addAll(high);
+                return tuples;
+            }
+
+            IntTupleBuffer tuples = new IntTupleBuffer(search.arity);
+            search.all(from, to, tuples);
+            return tuples;
+        }
+    }
+}
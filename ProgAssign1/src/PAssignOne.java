@@ -5,7 +5,8 @@
  *  Assignment #1                                   *
  ****************************************************/
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.Scanner;
 
@@ -15,46 +16,132 @@ import java.util.Scanner;
 public class PAssignOne{
     /**
      * The main method.
-     * @param args Not used.
+     * @param args Either nothing for the interactive menu, --batch followed by a workload script
+     *             to replay without interaction (see PairSumWorkload), --generate file count [distribution]
+     *             to write an int file with DataGenerator, or --external file k [memoryMB] to answer one
+     *             query on an int file larger than the heap (see ExternalPairSum).
      */
     public static void main(String[] args) {
-        Integer selectAlgorithm;
+        int selectAlgorithm;
         int kValue;
-        Integer[] randArray;
+        int[] randArray;
+
+        if (args.length == 2 && args[0].equals("--batch")){
+            runBatch(Path.of(args[1]));
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--generate")){
+            generateFile(Path.of(args[1]), args[2], args.length == 4 ? args[3] : "uniform");
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--external")){
+            externalAlgorithm(Path.of(args[1]), args[2], args.length == 4 ? args[3] : null);
+            return;
+        }
 
         while (true){
             selectAlgorithm = getUserAlgorithmSelection();
+            if (selectAlgorithm == 9){
+                System.out.print(Metrics.toCsv());
+                continue;
+            }
             randArray = getUserArraySelection();
+            if (selectAlgorithm == 6){
+                indexedAlgorithm(randArray, getKValues());
+                continue;
+            }
             kValue = getKValue();
-            if (selectAlgorithm.equals(1))
+            if (selectAlgorithm == 1)
                 quadraticAlgorithm(randArray, kValue);
-            else if (selectAlgorithm.equals(2))
+            else if (selectAlgorithm == 2)
                 logarithmicAlgorithm(randArray, kValue);
+            else if (selectAlgorithm == 4)
+                linearAlgorithm(randArray, kValue);
+            else if (selectAlgorithm == 5)
+                countingAlgorithm(randArray, kValue);
+            else if (selectAlgorithm == 7)
+                parallelAlgorithm(randArray, kValue);
+            else if (selectAlgorithm == 8)
+                allPairsAlgorithm(randArray, kValue);
         }
     }
 
     /**
-     * The binary search algorithm. This implementation is from the lecture slides.
-     * @param a The array to search.
-     * @param x The value to search for.
-     * @param low Leftmost index of the array a.
-     * @param high Rightmost index of the array a.
-     * @return If x occurs, the index where x occurs in a. If x is not found, return -1.
+     * Replays a workload script and prints its throughput and latency report (added by Travis).
+     * @param script The workload script.
      */
-    private static int binarySearch(Comparable[] a, Comparable x, int low, int high){
-        int NOT_FOUND = -1;
+    private static void runBatch(Path script){
+        try {
+            PairSumWorkload.parse(script).run(System.out);
+        }
+        catch (IOException ex){
+            System.out.println("Could not read " + script + ": " + ex.getMessage());
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println("Invalid workload: " + ex.getMessage());
+        }
+    }
 
-        if (low > high)
-            return NOT_FOUND;
+    /**
+     * Writes an int file of values in [-9999, 9999] for externalAlgorithm (added by Travis).
+     * @param file The file to write.
+     * @param count The number of values.
+     * @param distribution A DataGenerator distribution name.
+     */
+    private static void generateFile(Path file, String count, String distribution){
+        Long size = tryParseLong(count);
 
-        int mid = (low + high) / 2;
+        if (size == null || size < 0){
+            System.out.println("The count must be a non-negative integer.");
+            return;
+        }
 
-        if (a[mid].compareTo(x) < 0)
-            return binarySearch(a, x, mid + 1, high);
-        else if (a[mid].compareTo(x) > 0)
-            return binarySearch(a, x, low, mid - 1);
-        else
-            return  mid;
+        try {
+            new DataGenerator(ThreadLocalRandom.current().nextLong(), -9999, 9999).write(distribution, size, file);
+            System.out.println("Wrote " + size + " " + distribution + " values to " + file + ".");
+        }
+        catch (IOException ex){
+            System.out.println("Could not write " + file + ": " + ex.getMessage());
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    /**
+     * Answers one k value on an int file with the out-of-core sort and two-pointer search (added by Travis).
+     * The runs are written next to the file.
+     * @param file The int file, as written by generateFile.
+     * @param k The k value.
+     * @param memoryMB The memory budget in megabytes, or null for the default.
+     */
+    private static void externalAlgorithm(Path file, String k, String memoryMB){
+        Integer kValue = tryParseInt(k);
+        Long memory = (memoryMB == null) ? Long.valueOf(ExternalPairSum.DEFAULT_MEMORY_BYTES >> 20) : tryParseLong(memoryMB);
+
+        if (kValue == null || memory == null){
+            System.out.println("k and the memory budget must be integers.");
+            return;
+        }
+
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.external"));
+
+        try {
+            ExternalPairSum pairSum = new ExternalPairSum(memory << 20, file.toAbsolutePath().getParent());
+            System.out.println("Running the external sort and two-pointer search with " + memory + "MB...");
+            timer.start();
+
+            int[] pair = pairSum.find(file, kValue);
+
+            timer.end();
+            outputResult(pair, timer.duration(), kValue);
+        }
+        catch (IOException ex){
+            System.out.println("Could not process " + file + ": " + ex.getMessage());
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println(ex.getMessage());
+        }
     }
 
     /**
@@ -62,32 +149,116 @@ public class PAssignOne{
      * @param randArray An array of integers.
      * @param kValue An integer value. The function checks if two values in randArray add to this value.
      */
-    private static void logarithmicAlgorithm(Integer[] randArray, int kValue){
-        Integer requiredValue = null;
-        int index, sumPartTwo = 02;
-        boolean result = false;
-        ExecutionTimer timer = new ExecutionTimer();
+    private static void logarithmicAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.logarithmic"));
         System.out.println("Running the O(NLogN) algorithm...");
         timer.start();
 
-        // The official java doc explains that Arrays.sort(object [] a) uses quicksort (Integer is an object) here:
-        // https://docs.oracle.com/en/java/javase/11/docs/api/java.base/java/util/Arrays.html#sort(java.lang.Object%5B%5D).
-        // The worst case for this implementation is O(nlog(n)).
-        Arrays.sort(randArray);
+        // Arrays.sort(int[]) sorts the primitive values directly, so there is no Integer per element
+        // and no compareTo call per probe. The worst case for the sort and the searches is O(nlog(n)).
+        int[] pair = PairSumEngine.logarithmic(randArray, kValue);
 
-        for (int i = 0; (i < randArray.length - 1) && !result; i++){
-            requiredValue = kValue - randArray[i];
-            index = binarySearch(randArray, requiredValue, 0, randArray.length-1);
+        timer.end();
+        outputResult(pair, timer.duration(), kValue);
+    }
 
-            if (index != -1 && i != index){
-                sumPartTwo = randArray[i];
-                result = true;
-            }
+    /**
+     * The expected O(n) algorithm. A single hashing pass, so there is no sort step.
+     * @param randArray An array of integers.
+     * @param kValue An integer value. The function checks if two values in randArray add to this value.
+     */
+    private static void linearAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.hashed"));
+
+        System.out.println("Running the O(N) hashing algorithm...");
+        timer.start();
+
+        int[] pair = PairSumEngine.hashed(randArray, kValue);
+
+        timer.end();
+        outputResult(pair, timer.duration(), kValue);
+    }
+
+    /**
+     * The O(n + r) algorithm for the bounded value range produced by generateArray.
+     * PairSumEngine falls back to the O(NLogN) algorithm if the range is too wide to count.
+     * @param randArray An array of integers.
+     * @param kValue An integer value. The function checks if two values in randArray add to this value.
+     */
+    private static void countingAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.counting"));
+
+        System.out.println("Running the O(N + R) counting algorithm...");
+        timer.start();
+
+        int[] pair = PairSumEngine.counting(randArray, kValue);
+
+        timer.end();
+        outputResult(pair, timer.duration(), kValue);
+    }
+
+    /**
+     * The O(NLogN) algorithm with the sort and the binary search probes spread across all cores.
+     * @param randArray An array of integers.
+     * @param kValue An integer value. The function checks if two values in randArray add to this value.
+     */
+    private static void parallelAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.parallel"));
+
+        System.out.println("Running the parallel O(NLogN) algorithm on " +
+                Runtime.getRuntime().availableProcessors() + " cores...");
+        timer.start();
+
+        int[] pair = PairSumEngine.parallel(randArray, kValue);
+
+        timer.end();
+        outputResult(pair, timer.duration(), kValue);
+    }
+
+    /**
+     * The O(n^2) algorithm that finds every pair adding to the K value, not just the first.
+     * @param randArray An array of integers.
+     * @param kValue An integer value. The function finds all pairs of values in randArray that add to this value.
+     */
+    private static void allPairsAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.allPairs"));
+
+        System.out.println("Running the O(N^2) all pairs algorithm...");
+        timer.start();
+
+        IntPairBuffer pairs = PairSumEngine.allPairs(randArray, kValue);
+
+        timer.end();
+        System.out.println("k = " + kValue + ", " + pairs.size() + " pairs found.");
+        if (pairs.size() < 50){
+            for (int i = 0; i < pairs.size(); i++)
+                System.out.print("(" + randArray[pairs.first(i)] + " + " + randArray[pairs.second(i)] + ") ");
+            System.out.println();
         }
+        System.out.println("Execution time in nanoseconds: " + timer.duration());
+    }
+
+    /**
+     * Builds a PairSumIndex once and answers every k value against it.
+     * @param randArray An array of integers.
+     * @param kValues The k values to check against randArray.
+     */
+    private static void indexedAlgorithm(int[] randArray, int[] kValues){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.index.build"));
 
+        System.out.println("Building the pair sum index...");
+        timer.start();
+        PairSumIndex index = new PairSumIndex(randArray);
         timer.end();
-        if (requiredValue == null) requiredValue = 0;
-        outputResult(result, timer.duration(), kValue, requiredValue, sumPartTwo);
+        System.out.println("Preprocessing time in nanoseconds: " + timer.duration());
+
+        timer = new ExecutionTimer(Metrics.timer("pairsum.index.query"));
+        for (int kValue : kValues){
+            timer.start();
+            int[] pair = index.query(kValue);
+            timer.end();
+            outputResult(pair, timer.duration(), kValue);
+        }
     }
 
     /**
@@ -95,32 +266,30 @@ public class PAssignOne{
      * @param randArray An array of integers.
      * @param kValue An integer value. The function checks if two values in randArray add to this value.
      */
-    private static void quadraticAlgorithm(Integer[] randArray, int kValue){
-        Integer total;
-        int sumPartOne = 0, sumPartTwo = 0;
-        boolean result = false;
-        ExecutionTimer timer = new ExecutionTimer();
+    private static void quadraticAlgorithm(int[] randArray, int kValue){
+        ExecutionTimer timer = new ExecutionTimer(Metrics.timer("pairsum.quadratic"));
 
         System.out.println("Running the O(N^2) algorithm...");
         timer.start();
 
-        if(randArray.length > 1) {
-            for (Integer i = 0; i < randArray.length; i++)
-                for (Integer j = 0; j < randArray.length; j++) {
-                    if (!i.equals(j)) {
-                        total = randArray[i] + randArray[j];
-                        if (total.equals(kValue)) {
-                            result = true;
-                            sumPartOne = randArray[i];
-                            sumPartTwo = randArray[j];
-                            break;
-                        }
-                    }
-                }
-        }
+        int[] pair = PairSumEngine.quadratic(randArray, kValue);
 
         timer.end();
-        outputResult(result, timer.duration(), kValue, sumPartOne, sumPartTwo);
+        outputResult(pair, timer.duration(), kValue);
+    }
+
+    /**
+     * Outputs the result of one of the PairSumEngine algorithms.
+     * @param pair The matching pair returned by the algorithm, or null if there is none.
+     * @param nanoRuntime Runtime of algorithm.
+     * @param kValue The selected k value.
+     */
+    private static void outputResult(int[] pair, long nanoRuntime, int kValue){
+        Metrics.counter(pair != null ? "pairsum.hits" : "pairsum.misses").increment();
+        if (pair != null)
+            outputResult(true, nanoRuntime, kValue, pair[0], pair[1]);
+        else
+            outputResult(false, nanoRuntime, kValue, 0, 0);
     }
 
     /**
@@ -162,6 +331,50 @@ public class PAssignOne{
         }
     }
 
+    /**
+     * Gets and validates user input for a list of K values.
+     * @return The integers input by the user, in the order they were entered.
+     */
+    private static int[] getKValues(){
+        String[] tokens;
+        int[] kValues;
+        Integer tempInt;
+        Scanner scan = new Scanner(System.in);
+
+        while (true){
+            System.out.print("Enter the K values (integers separated by spaces): ");
+            tokens = scan.nextLine().trim().split("\\s+");
+            kValues = new int[tokens.length];
+
+            for (int i = 0; i < tokens.length && kValues != null; i++){
+                tempInt = tryParseInt(tokens[i]);
+                if (tempInt != null)
+                    kValues[i] = tempInt;
+                else
+                    kValues = null;
+            }
+
+            if (kValues != null)
+                return kValues;
+
+            System.out.println("The K values must be integers.");
+        }
+    }
+
+    /**
+     * A utility method to safely convert a string to long (added by Travis).
+     * @param value String value for conversion attempt.
+     * @return The converted long or null if input is incorrect.
+     */
+    private static Long tryParseLong(String value){
+        try{
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException ex){
+            return null;
+        }
+    }
+
     /**
      * A utility method to safely convert a string to integer, similar to the built-in c# function.
      * @param value String value for conversion attempt.
@@ -180,8 +393,8 @@ public class PAssignOne{
      * Gets and validates input for array generation.
      * @return A validated array of random integers.
      */
-    private static Integer[] getUserArraySelection(){
-        Integer[] randArray = null;
+    private static int[] getUserArraySelection(){
+        int[] randArray = null;
         Integer size;
         String temp;
         Scanner scan = new Scanner(System.in);
@@ -222,6 +435,12 @@ public class PAssignOne{
             System.out.println("1.  Quadratic algorithm ");
             System.out.println("2.  Logarithmic algorithm ");
             System.out.println("3.  Exit the program ");
+            System.out.println("4.  Linear (hashing) algorithm ");
+            System.out.println("5.  Counting sort algorithm ");
+            System.out.println("6.  Indexed algorithm (many K values) ");
+            System.out.println("7.  Parallel logarithmic algorithm ");
+            System.out.println("8.  All pairs (quadratic) algorithm ");
+            System.out.println("9.  Print timing metrics ");
             System.out.print("Choose an algorithm: ");
 
             temp = scan.next();
@@ -231,6 +450,12 @@ public class PAssignOne{
                 if (algoSelection.equals(1)) return algoSelection;
                 if (algoSelection.equals(2)) return algoSelection;
                 if (algoSelection.equals(3)) System.exit(0);
+                if (algoSelection.equals(4)) return algoSelection;
+                if (algoSelection.equals(5)) return algoSelection;
+                if (algoSelection.equals(6)) return algoSelection;
+                if (algoSelection.equals(7)) return algoSelection;
+                if (algoSelection.equals(8)) return algoSelection;
+                if (algoSelection.equals(9)) return algoSelection;
             }
 
             System.out.println("Please select a shown option.");
@@ -238,24 +463,14 @@ public class PAssignOne{
     }
 
     /**
-     * Gets an array of random numbers.
+     * Gets an array of random numbers, filled in parallel by DataGenerator from a fresh seed.
      * @param size The size of the returned array.
      * @return An integer array of specified size that contains random values (value range: -9999 to 9999).
      */
-    private static Integer[] generateArray(Integer size){
+    private static int[] generateArray(int size){
         if(size <= 0)
             return null;
 
-        // The lower bound of the method ThreadLocalRandom.current().nextInt() is
-        // inclusive and the upper bound is exclusive.
-        int lowerBound = -9999;
-        int upperBound =  10000;
-        Integer[] randArray = new Integer[size];
-
-        for (int i = 0; i < size; i++){
-            randArray[i] = ThreadLocalRandom.current().nextInt(lowerBound, upperBound);
-        }
-
-        return randArray;
+        return new DataGenerator(ThreadLocalRandom.current().nextLong(), -9999, 9999).generate("uniform", size);
     }
 }
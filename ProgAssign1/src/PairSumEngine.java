@@ -0,0 +1,322 @@
+/****************************************************
+ *  Program Title: Pair Sum Engine                  *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Primitive int[] implementations of the pair sum algorithms used by PAssignOne.
+ * Every algorithm returns the matching pair as a two element array {sumPartOne, sumPartTwo},
+ * or null if no two values in the array add to k.
+ * <p>
+ * Sums are exact: two values match when their sum as a long equals k, so no pair matches through int
+ * overflow. Every strategy, PairSumIndex, ExternalPairSum and KSumEngine follow the same rule and agree
+ * near the int limits.
+ */
+public final class PairSumEngine {
+    /**
+     * Index returned by binarySearch when the value is not present.
+     */
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * Largest value range (max - min + 1) that counting will index with a count array.
+     * Wider ranges fall back to the sorting algorithm.
+     */
+    public static final int MAX_COUNTING_RANGE = 1 << 22;
+
+    /**
+     * Values the hashed set is sized for up front; it grows from there as distinct values arrive.
+     * 2^20 values take an 8MB table, where presizing for the whole array would take 8 bytes per element.
+     */
+    private static final int HASHED_INITIAL_SIZE = 1 << 20;
+
+    /**
+     * Number of probes a parallel worker handles without splitting further.
+     */
+    private static final int PARALLEL_PROBE_THRESHOLD = 1 << 15;
+
+    /**
+     * Side of the square blocks used by allPairs. Two tiles of 4096 ints are 32KB,
+     * so the j tile stays in L1/L2 while every i in the i tile sweeps over it.
+     */
+    private static final int ALL_PAIRS_TILE = 1 << 12;
+
+    private PairSumEngine() {
+    }
+
+    /**
+     * The O(n^2) algorithm. Each unordered pair (i, j) with i < j is checked exactly once
+     * and the search stops at the first match.
+     * @param a An array of integers.
+     * @param k The value two elements of a must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    public static int[] quadratic(int[] a, int k) {
+        for (int i = 0; i < a.length - 1; i++) {
+            long required = (long) k - a[i];
+            if (!isInt(required))
+                continue;   // No int completes the sum
+
+            for (int j = i + 1; j < a.length; j++)
+                if (a[j] == (int) required)
+                    return new int[] {a[i], a[j]};
+        }
+
+        return null;
+    }
+
+    /**
+     * The O(n*log(n)) algorithm. Sorts a in place and binary searches for the complement of each element.
+     * @param a An array of integers. The array is sorted by this method.
+     * @param k The value two elements of a must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    public static int[] logarithmic(int[] a, int k) {
+        // Arrays.sort(int[]) is a dual-pivot quicksort on the primitive values, so no element is boxed.
+        Arrays.sort(a);
+        return searchSorted(a, k);
+    }
+
+    /**
+     * Finds every pair of indexes i < j with a[i] + a[j] == k. The O(n^2) pair space is walked in
+     * square tiles of the upper triangle, so each unordered pair is checked exactly once and the
+     * inner loop reads one cache-resident tile. The inner loop is a plain compare over contiguous
+     * ints, which the JIT unrolls and vectorizes where the hardware allows.
+     * Pairs are reported tile by tile, not in lexicographic order. The array is not modified.
+     * @param a An array of integers.
+     * @param k The value two elements of a must add to.
+     * @return A buffer of index pairs (i, j), empty if there are none.
+     */
+    public static IntPairBuffer allPairs(int[] a, int k) {
+        IntPairBuffer pairs = new IntPairBuffer();
+        int n = a.length;
+
+        for (int iTile = 0; iTile < n; iTile += ALL_PAIRS_TILE) {
+            int iEnd = Math.min(iTile + ALL_PAIRS_TILE, n);
+
+            for (int jTile = iTile; jTile < n; jTile += ALL_PAIRS_TILE) {
+                int jEnd = Math.min(jTile + ALL_PAIRS_TILE, n);
+
+                for (int i = iTile; i < iEnd; i++) {
+                    long required = (long) k - a[i];
+                    if (!isInt(required))
+                        continue;
+                    int r = (int) required;
+
+                    for (int j = Math.max(jTile, i + 1); j < jEnd; j++)
+                        if (a[j] == r)
+                            pairs.add(i, j);
+                }
+            }
+        }
+
+        return pairs;
+    }
+
+    /**
+     * The parallel O(n*log(n)) algorithm. Sorts a in place with Arrays.parallelSort, then splits the
+     * binary search probes into chunks on the common fork-join pool. The first worker to find a pair
+     * publishes it and every other worker stops at its next probe.
+     * @param a An array of integers. The array is sorted by this method.
+     * @param k The value two elements of a must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    public static int[] parallel(int[] a, int k) {
+        Arrays.parallelSort(a);
+
+        AtomicReference<int[]> pair = new AtomicReference<>();
+        ForkJoinPool.commonPool().invoke(new ProbeTask(a, k, 0, a.length - 1, pair));
+        return pair.get();
+    }
+
+    /**
+     * The expected O(n) algorithm. Makes a single pass over a, checking each element's complement
+     * against the values seen so far in an IntHashSet. The array is not modified. The set starts at
+     * HASHED_INITIAL_SIZE values and doubles as needed, so an early match never pays for a table
+     * sized to the whole array.
+     * @param a An array of integers.
+     * @param k The value two elements of a must add to.
+     * @return The matching pair, or null if there is none.
+     * @throws IllegalStateException if a holds more than IntHashSet.MAX_SIZE distinct values before a match.
+     */
+    public static int[] hashed(int[] a, int k) {
+        IntHashSet seen = new IntHashSet(Math.min(a.length, HASHED_INITIAL_SIZE));
+
+        for (int x : a) {
+            long required = (long) k - x;
+
+            if (isInt(required) && seen.contains((int) required))
+                return new int[] {(int) required, x};
+            seen.add(x);
+        }
+
+        return null;
+    }
+
+    /**
+     * The O(n + r) algorithm for arrays whose values span a bounded range r, such as the
+     * [-9999, 9999] arrays from PAssignOne.generateArray. Counting sorts the values into a count
+     * array and answers k with a two-pointer sweep from both ends of the range.
+     * If the range is wider than MAX_COUNTING_RANGE, falls back to logarithmic, which sorts a in place.
+     * @param a An array of integers.
+     * @param k The value two elements of a must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    public static int[] counting(int[] a, int k) {
+        if (a.length < 2)
+            return null;
+
+        int min = a[0], max = a[0];
+        for (int x : a) {
+            if (x < min) min = x;
+            if (x > max) max = x;
+        }
+
+        long range = (long) max - min + 1;
+        if (range > MAX_COUNTING_RANGE)
+            return logarithmic(a, k);
+
+        int[] counts = new int[(int) range];
+        for (int x : a)
+            counts[x - min]++;
+
+        // Work in offsets from min, so the pair (lo, hi) matches when lo + hi == k - 2 * min.
+        long target = (long) k - 2L * min;
+        if (target < 0 || target > 2 * (range - 1))
+            return null;
+
+        int lo = 0, hi = (int) range - 1;
+        while (lo <= hi) {
+            if (counts[lo] == 0)
+                lo++;
+            else if (counts[hi] == 0)
+                hi--;
+            else if (lo + (long) hi < target)
+                lo++;
+            else if (lo + (long) hi > target)
+                hi--;
+            else if (lo < hi || counts[lo] > 1)
+                return new int[] {lo + min, hi + min};
+            else
+                break;
+        }
+
+        return null;
+    }
+
+    /**
+     * Binary searches for the complement of every element of an already sorted array.
+     * @param sorted An array of integers in ascending order.
+     * @param k The value two elements of sorted must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    static int[] searchSorted(int[] sorted, int k) {
+        for (int i = 0; i < sorted.length - 1; i++) {
+            long required = (long) k - sorted[i];
+            if (!isInt(required))
+                continue;
+            int index = binarySearch(sorted, (int) required, 0, sorted.length - 1);
+
+            if (index != NOT_FOUND && isOtherIndex(sorted, i, index))
+                return new int[] {sorted[i], (int) required};
+        }
+
+        return null;
+    }
+
+    /**
+     * Iterative binary search on a primitive array. This is the lecture slide algorithm
+     * with the tail recursion replaced by a loop.
+     * @param a The array to search, in ascending order.
+     * @param x The value to search for.
+     * @param low Leftmost index of the array a.
+     * @param high Rightmost index of the array a.
+     * @return If x occurs, an index where x occurs in a. If x is not found, return NOT_FOUND.
+     */
+    static int binarySearch(int[] a, int x, int low, int high) {
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+
+            if (a[mid] < x)
+                low = mid + 1;
+            else if (a[mid] > x)
+                high = mid - 1;
+            else
+                return mid;
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Checks that an exact complement k - x, computed as a long, is an int that could be in the array.
+     * @param required The complement.
+     * @return true if required fits in an int.
+     */
+    private static boolean isInt(long required) {
+        return required == (int) required;
+    }
+
+    /**
+     * Checks that the complement found at index is not just element i pairing with itself.
+     * When the search lands on i, an equal neighbour is a second copy of the same value.
+     * @param sorted An array of integers in ascending order.
+     * @param i Index of the first part of the sum.
+     * @param index Index returned by the binary search for the second part.
+     * @return true if a different element holds the value at index.
+     */
+    private static boolean isOtherIndex(int[] sorted, int i, int index) {
+        if (i != index)
+            return true;
+        return (i > 0 && sorted[i - 1] == sorted[i]) || (i + 1 < sorted.length && sorted[i + 1] == sorted[i]);
+    }
+
+    /**
+     * Fork-join task that binary searches for the complement of each element in [from, to).
+     * Ranges larger than PARALLEL_PROBE_THRESHOLD are split in half.
+     */
+    private static class ProbeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sorted;
+        private final int k;
+        private final int from;
+        private final int to;
+        private final AtomicReference<int[]> pair;  // Shared result; non-null once any worker has a match
+
+        ProbeTask(int[] sorted, int k, int from, int to, AtomicReference<int[]> pair) {
+            this.sorted = sorted;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.pair = pair;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_PROBE_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ProbeTask(sorted, k, from, mid, pair),
+                          new ProbeTask(sorted, k, mid, to, pair));
+                return;
+            }
+
+            // Re-checking the shared result every probe mirrors the !result guard of the serial loop.
+            for (int i = from; i < to && pair.get() == null; i++) {
+                long required = (long) k - sorted[i];
+                if (!isInt(required))
+                    continue;
+                int index = binarySearch(sorted, (int) required, 0, sorted.length - 1);
+
+                if (index != NOT_FOUND && isOtherIndex(sorted, i, index))
+                    pair.compareAndSet(null, new int[] {sorted[i], (int) required});
+            }
+        }
+    }
+}
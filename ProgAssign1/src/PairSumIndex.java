@@ -0,0 +1,190 @@
+/****************************************************
+ *  Program Title: Pair Sum Index                   *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A reusable index for answering many k values against the same array.
+ * The preprocessing is paid once in the constructor and the index is never modified afterwards,
+ * so queries may be run from any number of threads.
+ * <p>
+ * If the values span at most MAX_TABLE_RANGE, every reachable sum is precomputed with one witness
+ * pair and each query is O(1). Otherwise each query is an O(n) two-pointer sweep of a sorted copy.
+ */
+public class PairSumIndex {
+    /**
+     * Largest value range (max - min + 1) for which the sum table is built.
+     * The table holds 2 * range ints and takes O(distinct * range / 64) time to build.
+     */
+    public static final int MAX_TABLE_RANGE = 1 << 16;
+
+    private final int[] sorted;     // Sorted copy of the source array
+    private final int min;          // Smallest value, the origin for value and sum offsets
+    private final int[] witness;    // witness[s] - 1 is the smaller offset of a pair with offset sum s, 0 if none
+
+    /**
+     * Construct the index. The source array is copied and is not modified.
+     * @param a An array of integers.
+     */
+    public PairSumIndex(int[] a) {
+        sorted = a.clone();
+        Arrays.sort(sorted);
+
+        if (sorted.length < 2) {
+            min = 0;
+            witness = new int[0];
+            return;
+        }
+
+        min = sorted[0];
+        long range = (long) sorted[sorted.length - 1] - min + 1;
+        witness = (range <= MAX_TABLE_RANGE) ? buildSumTable((int) range) : null;
+    }
+
+    /**
+     * Find two values in the array that add to k.
+     * @param k The value two elements of the array must add to.
+     * @return The matching pair {sumPartOne, sumPartTwo}, or null if there is none.
+     */
+    public int[] query(int k) {
+        if (witness == null)
+            return sweep(k);
+
+        long target = (long) k - 2L * min;
+        if (target < 0 || target >= witness.length || witness[(int) target] == 0)
+            return null;
+
+        int partOne = witness[(int) target] - 1;
+        return new int[] {partOne + min, (int) target - partOne + min};
+    }
+
+    /**
+     * Answer every k value in order on the calling thread.
+     * @param ks The k values to query.
+     * @return An array where element i is query(ks[i]).
+     */
+    public int[][] queryAll(int[] ks) {
+        int[][] pairs = new int[ks.length][];
+
+        for (int i = 0; i < ks.length; i++)
+            pairs[i] = query(ks[i]);
+
+        return pairs;
+    }
+
+    /**
+     * Answer every k value, spreading the queries across the common fork-join pool.
+     * @param ks The k values to query.
+     * @return An array where element i is query(ks[i]).
+     */
+    public int[][] parallelQueryAll(int[] ks) {
+        int[][] pairs = new int[ks.length][];
+
+        IntStream.range(0, ks.length).parallel().forEach(i -> pairs[i] = query(ks[i]));
+
+        return pairs;
+    }
+
+    /**
+     * @return the number of values in the index.
+     */
+    public int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Internal method to answer a query with a two-pointer sweep of the sorted copy.
+     * Sums are compared as longs so the sweep stays monotonic near the int limits.
+     * @param k The value two elements must add to.
+     * @return The matching pair, or null if there is none.
+     */
+    private int[] sweep(int k) {
+        int lo = 0, hi = sorted.length - 1;
+
+        while (lo < hi) {
+            long sum = (long) sorted[lo] + sorted[hi];
+
+            if (sum < k)
+                lo++;
+            else if (sum > k)
+                hi--;
+            else
+                return new int[] {sorted[lo], sorted[hi]};
+        }
+
+        return null;
+    }
+
+    /**
+     * Internal method to compute one witness for every sum reachable by two elements.
+     * Values are held as a presence bitmap of offsets from min. For each present offset a, the
+     * bitmap of larger offsets is shifted left by a, and every sum bit not already found records a.
+     * Each word operation covers 64 sums at once.
+     * @param range The value range, max - min + 1.
+     * @return The witness table indexed by offset sum.
+     */
+    private int[] buildSumTable(int range) {
+        long[] present = new long[(range + 63) >>> 6];
+        long[] found = new long[((2 * range) + 63) >>> 6];
+        int[] table = new int[2 * range - 1];
+
+        for (int i = 0; i < sorted.length; i++) {
+            int offset = sorted[i] - min;
+
+            // A value that occurs twice can pair with itself.
+            if (i > 0 && sorted[i] == sorted[i - 1] && table[2 * offset] == 0) {
+                table[2 * offset] = offset + 1;
+                found[(2 * offset) >>> 6] |= 1L << (2 * offset);
+            }
+            present[offset >>> 6] |= 1L << offset;
+        }
+
+        for (int w = 0; w < present.length; w++) {
+            for (long bits = present[w]; bits != 0; bits &= bits - 1) {
+                int a = (w << 6) + Long.numberOfTrailingZeros(bits);
+                int first = (a + 1) >>> 6;
+
+                for (int v = first; v < present.length; v++) {
+                    long larger = present[v];
+                    if (v == first)
+                        larger &= -1L << (a + 1);
+                    if (larger == 0)
+                        continue;
+
+                    int base = (v << 6) + a;
+                    int shift = base & 63;
+                    record(table, found, base >>> 6, larger << shift, a);
+                    if (shift != 0)
+                        record(table, found, (base >>> 6) + 1, larger >>> (64 - shift), a);
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Internal method to record offset a as the witness of every newly reached sum in one word.
+     * @param table The witness table.
+     * @param found Bitmap of sums that already have a witness.
+     * @param word Index of the sum word.
+     * @param sums Sum bits reached from a in this word.
+     * @param a The smaller offset of each pair.
+     */
+    private static void record(int[] table, long[] found, int word, long sums, int a) {
+        if (sums == 0)
+            return;
+
+        long fresh = sums & ~found[word];
+        if (fresh == 0)
+            return;
+
+        found[word] |= fresh;
+        for (; fresh != 0; fresh &= fresh - 1)
+            table[(word << 6) + Long.numberOfTrailingZeros(fresh)] = a + 1;
+    }
+}
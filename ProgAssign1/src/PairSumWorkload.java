@@ -0,0 +1,311 @@
+/****************************************************
+ *  Program Title: Pair Sum Workload                *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Replays a script of pair sum operations without console interaction, for measuring sustained
+ * throughput. The whole script is parsed before anything runs, random arguments included, so the
+ * timed loop does no parsing and no console I/O. Every query is recorded in the same Metrics
+ * timers as the interactive program, and run prints the query throughput and the latency table at the end.
+ * Query throughput counts the time spent answering queries, including copies and index builds,
+ * but not array generation.
+ * <p>
+ * One operation per line; blank lines and text after # are ignored. Wherever a list of k values
+ * is expected, "random count lo hi" stands for count k values drawn uniformly from [lo, hi], and any
+ * other DataGenerator distribution name can take the place of random, as in "query hashed zipf 1000 0 999",
+ * the same list syntax as TreeWorkload.
+ * <pre>
+ * seed 42                          reseed the generators used by generate and random
+ * generate 1000000                 a new array of uniform random values in [-9999, 9999]
+ * generate 1000000 noHit           the same with another DataGenerator distribution
+ * query hashed 5 -17 20000         answer each k with one algorithm
+ * query indexed random 10000 -20000 20000
+ * stats                            print the metrics so far (not timed)
+ * reset                            clear the metrics
+ * </pre>
+ * The algorithms are quadratic, logarithmic, hashed, counting, parallel, indexed and allPairs, plus
+ * threeSum and fourSum, which look for three or four values adding to k with the parallel KSumEngine.
+ * Algorithms that sort the array work on a copy made outside the timed region, so every query sees
+ * the generated order. indexed builds one PairSumIndex per generated array and reuses it.
+ */
+public final class PairSumWorkload {
+    /**
+     * Seed used until a seed line changes it.
+     */
+    public static final long DEFAULT_SEED = 3320;
+
+    // Indexes into ALGORITHMS; keep the two in the same order
+    private static final int QUADRATIC = 0, LOGARITHMIC = 1, HASHED = 2, COUNTING = 3, PARALLEL = 4,
+            INDEXED = 5, ALL_PAIRS = 6, THREE_SUM = 7, FOUR_SUM = 8;
+
+    private static final String[] ALGORITHMS =
+            {"quadratic", "logarithmic", "hashed", "counting", "parallel", "indexed", "allPairs", "threeSum", "fourSum"};
+
+    private static final int SEED = 0, GENERATE = 1, QUERY = 2, STATS = 3, RESET = 4;
+
+    private final List<Step> steps;
+
+    private PairSumWorkload(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Parse a workload script.
+     * @param script The script file.
+     * @return The parsed workload, ready to run.
+     * @throws IOException if the script cannot be read.
+     * @throws IllegalArgumentException if a line is not a valid operation; the message names the line.
+     */
+    public static PairSumWorkload parse(Path script) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(DEFAULT_SEED);
+        boolean generated = false;
+        int lineNumber = 0;
+
+        for (String line : Files.readAllLines(script)) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String[] tokens = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (tokens[0].isEmpty())
+                continue;
+
+            try {
+                switch (tokens[0]) {
+                    case "seed":
+                        expectCount(tokens, 2);
+                        long seed = Long.parseLong(tokens[1]);
+                        random = new SplittableRandom(seed);
+                        steps.add(new Step(SEED, seed));
+                        break;
+                    case "generate":
+                        if (tokens.length != 2 && tokens.length != 3)
+                            throw new IllegalArgumentException("generate expects a size and an optional distribution");
+                        int size = Integer.parseInt(tokens[1]);
+                        if (size <= 0)
+                            throw new IllegalArgumentException("the array size must be positive");
+                        int distribution = tokens.length == 2 ? 0 : distribution(tokens[2]);
+                        steps.add(new Step(GENERATE, distribution, new int[] {size}));
+                        generated = true;
+                        break;
+                    case "query":
+                        if (!generated)
+                            throw new IllegalArgumentException("query before any generate");
+                        if (tokens.length < 3)
+                            throw new IllegalArgumentException("expected an algorithm and k values");
+                        steps.add(new Step(QUERY, algorithm(tokens[1]), values(tokens, 2, random)));
+                        break;
+                    case "stats":
+                        steps.add(new Step(STATS, 0, new int[0]));
+                        break;
+                    case "reset":
+                        steps.add(new Step(RESET, 0, new int[0]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown operation " + tokens[0]);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(script + " line " + lineNumber + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        return new PairSumWorkload(steps);
+    }
+
+    /**
+     * Run every operation in order, then print the query throughput and the latency of each operation type.
+     * @param out Where the stats operations and the final report are printed.
+     */
+    public void run(PrintStream out) {
+        SplittableRandom random = new SplittableRandom(DEFAULT_SEED);
+        int[] array = null;
+        PairSumIndex index = null;
+        long queries = 0;
+        long queryNanos = 0;
+
+        for (Step step : steps) {
+            switch (step.code) {
+                case SEED:
+                    random = new SplittableRandom(step.seed);
+                    break;
+                case GENERATE:
+                    long start = System.nanoTime();
+                    array = new DataGenerator(random.nextLong(), -9999, 9999)
+                            .generate(DataGenerator.DISTRIBUTIONS[step.algorithm], step.values[0]);
+                    index = null;
+                    Metrics.timer("pairsum.generate").recordSince(start);
+                    break;
+                case QUERY:
+                    long stepStart = System.nanoTime();
+                    if (step.algorithm == INDEXED && index == null) {
+                        index = new PairSumIndex(array);
+                        Metrics.timer("pairsum.index.build").recordSince(stepStart);
+                    }
+                    queries += query(step, array, index);
+                    queryNanos += System.nanoTime() - stepStart;
+                    break;
+                case STATS:
+                    out.print(Metrics.toCsv());
+                    break;
+                case RESET:
+                    Metrics.reset();
+                    break;
+            }
+        }
+
+        out.printf(Locale.ROOT, "Answered %d queries in %.3f s (%.1f queries/sec).%n",
+                queries, queryNanos / 1e9, queries / Math.max(queryNanos / 1e9, 1e-9));
+        out.print(Metrics.toCsv());
+    }
+
+    /**
+     * Internal method to answer every k value of a query step, timing each answer.
+     * @param step The query step.
+     * @param array The current array; it is not modified.
+     * @param index The index of the current array, used by the indexed algorithm.
+     * @return The number of queries answered.
+     */
+    private static int query(Step step, int[] array, PairSumIndex index) {
+        LatencyHistogram timer = Metrics.timer(step.algorithm == INDEXED ? "pairsum.index.query" : "pairsum." + ALGORITHMS[step.algorithm]);
+        boolean sorts = sortsInput(step.algorithm);
+        long hits = 0;
+
+        for (int k : step.values) {
+            int[] input = sorts ? array.clone() : array;
+            long start = System.nanoTime();
+            boolean hit;
+
+            switch (step.algorithm) {
+                case QUADRATIC: hit = PairSumEngine.quadratic(input, k) != null; break;
+                case LOGARITHMIC: hit = PairSumEngine.logarithmic(input, k) != null; break;
+                case HASHED: hit = PairSumEngine.hashed(input, k) != null; break;
+                case COUNTING: hit = PairSumEngine.counting(input, k) != null; break;
+                case PARALLEL: hit = PairSumEngine.parallel(input, k) != null; break;
+                case INDEXED: hit = index.query(k) != null; break;
+                case ALL_PAIRS: hit = !PairSumEngine.allPairs(input, k).isEmpty(); break;
+                case THREE_SUM: hit = KSumEngine.find(input, k, 3, true) != null; break;
+                case FOUR_SUM: hit = KSumEngine.find(input, k, 4, true) != null; break;
+                default: throw new IllegalStateException("No case for algorithm " + ALGORITHMS[step.algorithm]);
+            }
+
+            timer.recordSince(start);
+            if (hit)
+                hits++;
+        }
+
+        Metrics.counter("pairsum.hits").add(hits);
+        Metrics.counter("pairsum.misses").add(step.values.length - hits);
+        return step.values.length;
+    }
+
+    /**
+     * Internal method to tell which algorithms sort their input in place, and so need a copy per query.
+     * counting sorts only when it falls back to logarithmic, but it may, so it gets a copy too.
+     * @param algorithm The index of the algorithm in ALGORITHMS.
+     * @return true if the algorithm may modify its input.
+     */
+    private static boolean sortsInput(int algorithm) {
+        switch (algorithm) {
+            case LOGARITHMIC:
+            case COUNTING:
+            case PARALLEL:
+            case THREE_SUM:
+            case FOUR_SUM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Internal method to look up an algorithm name.
+     * @param name The algorithm name.
+     * @return The index of the name in ALGORITHMS.
+     */
+    private static int algorithm(String name) {
+        for (int i = 0; i < ALGORITHMS.length; i++)
+            if (ALGORITHMS[i].equals(name))
+                return i;
+        throw new IllegalArgumentException("unknown algorithm " + name);
+    }
+
+    /**
+     * Internal method to look up a distribution name.
+     * @param name The distribution name.
+     * @return The index of the name in DataGenerator.DISTRIBUTIONS.
+     */
+    private static int distribution(String name) {
+        for (int i = 0; i < DataGenerator.DISTRIBUTIONS.length; i++)
+            if (DataGenerator.DISTRIBUTIONS[i].equals(name))
+                return i;
+        throw new IllegalArgumentException("unknown distribution " + name);
+    }
+
+    /**
+     * Internal method to read a list of values, or a "random count lo hi" or distribution list.
+     * @param tokens The tokens of the line.
+     * @param from The index of the first value token.
+     * @param random The source of the seeds for random and distribution lists.
+     * @return The values.
+     */
+    private static int[] values(String[] tokens, int from, SplittableRandom random) {
+        String distribution = tokens[from].equals("random") ? "uniform" : tokens[from];
+        if (Arrays.asList(DataGenerator.DISTRIBUTIONS).contains(distribution)) {
+            expectCount(tokens, from + 4);
+            int count = Integer.parseInt(tokens[from + 1]);
+            int lo = Integer.parseInt(tokens[from + 2]);
+            int hi = Integer.parseInt(tokens[from + 3]);
+            if (count < 0 || lo > hi)
+                throw new IllegalArgumentException(tokens[from] + " needs a count >= 0 and lo <= hi");
+            return new DataGenerator(random.nextLong(), lo, hi).generate(distribution, count);
+        }
+
+        int[] values = new int[tokens.length - from];
+        for (int i = 0; i < values.length; i++)
+            values[i] = Integer.parseInt(tokens[from + i]);
+        return values;
+    }
+
+    /**
+     * Internal method to check the number of tokens on a line.
+     * @param tokens The tokens of the line.
+     * @param count The expected number of tokens.
+     */
+    private static void expectCount(String[] tokens, int count) {
+        if (tokens.length != count)
+            throw new IllegalArgumentException(tokens[0] + " expects " + (count - 1) + " arguments");
+    }
+
+    // One parsed line of the script
+    private static final class Step {
+        Step(int code, int algorithm, int[] values) {
+            this.code = code;
+            this.algorithm = algorithm;
+            this.values = values;
+            this.seed = 0;
+        }
+
+        Step(int code, long seed) {
+            this.code = code;
+            this.algorithm = 0;
+            this.values = new int[0];
+            this.seed = seed;
+        }
+
+        final int code;         // SEED, GENERATE, QUERY, STATS or RESET
+        final int algorithm;    // Index into ALGORITHMS for QUERY, into DataGenerator.DISTRIBUTIONS for GENERATE
+        final int[] values;     // The array size or the k values
+        final long seed;        // The seed of a SEED step
+    }
+}
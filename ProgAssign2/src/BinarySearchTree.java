@@ -1,26 +1,111 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Implements an unbalanced binary search tree.
+ * Implements a binary search tree. The tree is unbalanced by default; a balanced tree keeps the
+ * AVL property on every insert and remove, so its height is always O(log N).
  * Note that all "matching" is based on the compareTo method.
  * @author Mark Allen Weiss.
  * Note: Minor modifications have been made from the implementation provided by Weiss.
  */
-public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
+public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
     /**
      * Construct the tree.
      */
     public BinarySearchTree() {
+        this(false);
+    }
+
+    /**
+     * Construct the tree (balanced mode added by Travis).
+     * @param balanced true to keep the tree AVL-balanced, false for a plain unbalanced tree.
+     */
+    public BinarySearchTree(boolean balanced) {
+        this.balanced = balanced;
         root = null;
     }
 
+    /**
+     * Build an unbalanced-mode tree from int keys in O(N) when they are already sorted.
+     * @param keys the keys, in any order; duplicates are ignored.
+     * @return a height-balanced tree holding the keys.
+     * @see #bulkLoad(int[], boolean)
+     */
+    public static BinarySearchTree<Integer> bulkLoad(int[] keys) {
+        return bulkLoad(keys, false);
+    }
+
+    /**
+     * Build a tree from int keys without inserting them one at a time (added by Travis).
+     * Unsorted keys are sorted first. The tree is then built bottom-up from the sorted, distinct
+     * keys in O(N), with each node allocated once and every subtree perfectly balanced,
+     * so the result also satisfies the AVL property.
+     * @param keys the keys, in any order; duplicates are ignored. The array is not modified.
+     * @param balanced true if later inserts and removes should keep the tree AVL-balanced.
+     * @return a height-balanced tree holding the keys.
+     */
+    public static BinarySearchTree<Integer> bulkLoad(int[] keys, boolean balanced) {
+        int[] sorted = keys;
+        int n = keys.length;
+
+        if (!isStrictlyAscending(keys)) {
+            sorted = keys.clone();
+            Arrays.sort(sorted);
+            n = 0;
+            for (int i = 0; i < sorted.length; i++)
+                if (n == 0 || sorted[i] != sorted[n - 1])
+                    sorted[n++] = sorted[i];
+        }
+
+        Integer[] items = new Integer[n];
+        for (int i = 0; i < n; i++)
+            items[i] = sorted[i];
+
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>(balanced);
+        tree.root = tree.build(items, 0, n - 1);
+        return tree;
+    }
+
+    /**
+     * Build a tree from a stream of items without inserting them one at a time.
+     * The items are sorted if the stream does not report them as sorted, duplicates
+     * (by compareTo) are dropped, and the tree is built bottom-up in O(N).
+     * @param items the items, in any order.
+     * @param balanced true if later inserts and removes should keep the tree AVL-balanced.
+     * @return a height-balanced tree holding the items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> BinarySearchTree<T> bulkLoad(Stream<T> items, boolean balanced) {
+        Comparable<Object>[] sorted = items.sorted().toArray(Comparable[]::new);
+        int n = 0;
+
+        for (int i = 0; i < sorted.length; i++)
+            if (n == 0 || sorted[i].compareTo(sorted[n - 1]) != 0)
+                sorted[n++] = sorted[i];
+
+        BinarySearchTree<T> tree = new BinarySearchTree<>(balanced);
+        tree.root = tree.build((T[]) sorted, 0, n - 1);
+        return tree;
+    }
+
     /**
      * Insert into the tree; duplicates are ignored.
      * @param x the item to insert.
      */
     public void insert(AnyType x) {
-        root = insert(x, root);
+        if (balanced)
+            root = insert(x, root);
+        else
+            insertUnbalanced(x);
     }
 
     /**
@@ -28,7 +113,10 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to remove.
      */
     public void remove(AnyType x) {
-        root = remove(x, root);
+        if (balanced)
+            root = remove(x, root);
+        else
+            removeUnbalanced(x);
     }
 
     /**
@@ -57,7 +145,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if not found.
      */
     public boolean contains(AnyType x) {
-        return contains(x, root);
+        return find(x, root) != null;
     }
 
     /**
@@ -65,6 +153,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      */
     public void makeEmpty() {
         root = null;
+        childCounts[0] = childCounts[1] = childCounts[2] = 0;
     }
 
     /**
@@ -83,7 +172,8 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
         if (isEmpty())
             System.out.println("Empty tree");
         else
-            printTree(root);
+            for (AnyType x : this)
+                System.out.print(x + " ");
     }
 
     /**
@@ -93,7 +183,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
         if (isEmpty())
             System.out.println("Empty tree.");
         else
-            printTreeDescending(root);
+            descendingIterator().forEachRemaining(x -> System.out.print(x + " "));
     }
 
     /**
@@ -107,7 +197,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
     }
 
     /**
-     * Counts the number of leaves in the tree (added by Travis).
+     * Counts the number of leaves in the tree in constant time (added by Travis).
      * @return The number of leaves in the tree, or -1 if the tree is empty.
      */
     public int numLeaves(){
@@ -115,11 +205,11 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             return -1;
         }
         else
-            return numLeaves(root);
+            return childCounts[0];
     }
 
     /**
-     * Internal method that prints the values between two nodes (added by Travis).
+     * Prints the values between two nodes in sorted order (added by Travis).
      * @param k1 Lower Bound (inclusive).
      * @param k2 Upper Bound (inclusive).
      */
@@ -127,11 +217,75 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
         if (k1.compareTo(k2) >= 0)
             System.out.println("K1 must be less than k2.");
         else
-            printBetween(root, k1, k2);
+            rangeIterator(k1, k2).forEachRemaining(x -> System.out.print(x + " "));
     }
 
     /**
-     * Counts the number of nodes with exactly one child in the tree (added by Travis).
+     * Iterate over the whole tree in ascending order.
+     * @return an iterator over every item, smallest first.
+     */
+    public Iterator<AnyType> iterator() {
+        return new RangeIterator(null, null, false);
+    }
+
+    /**
+     * Iterate over the whole tree in descending order.
+     * @return an iterator over every item, largest first.
+     */
+    public Iterator<AnyType> descendingIterator() {
+        return new RangeIterator(null, null, true);
+    }
+
+    /**
+     * Iterate over the items between k1 and k2 in ascending order.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the items in [k1, k2], empty if k1 > k2.
+     */
+    public Iterator<AnyType> rangeIterator(AnyType k1, AnyType k2) {
+        return rangeIterator(k1, k2, false);
+    }
+
+    /**
+     * Iterate over the items between k1 and k2. The iterator walks the tree lazily, holding at most
+     * height + 1 nodes, so reading K items costs O(height + K) and stopping early costs nothing more.
+     * The iterator reflects the tree as it is read; do not modify the tree while iterating.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @param descending true to iterate from k2 down to k1.
+     * @return an iterator over the items in [k1, k2], empty if k1 > k2.
+     */
+    public Iterator<AnyType> rangeIterator(AnyType k1, AnyType k2, boolean descending) {
+        if (k1 == null || k2 == null)
+            throw new IllegalArgumentException("Range bounds must not be null.");
+        return new RangeIterator(k1, k2, descending);
+    }
+
+    /**
+     * Stream the items between k1 and k2 in ascending order.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return a sequential stream over rangeIterator(k1, k2).
+     */
+    public Stream<AnyType> stream(AnyType k1, AnyType k2) {
+        return stream(k1, k2, false);
+    }
+
+    /**
+     * Stream the items between k1 and k2. Short-circuiting operations such as limit or findFirst
+     * stop the underlying walk early.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @param descending true to stream from k2 down to k1.
+     * @return a sequential stream over rangeIterator(k1, k2, descending).
+     */
+    public Stream<AnyType> stream(AnyType k1, AnyType k2, boolean descending) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rangeIterator(k1, k2, descending),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Counts the number of nodes with exactly one child in the tree in constant time (added by Travis).
      * @return The number of nodes with one child in the tree, or -1 if the tree is empty.
      */
     public int numOneChildNodes(){
@@ -139,11 +293,93 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             return -1;
         }
         else
-            return numOneChildNodes(root);
+            return childCounts[1];
+    }
+
+    /**
+     * Get the number of items in the tree in constant time.
+     * @return the number of items.
+     */
+    public int size() {
+        return nodeSize(root);
+    }
+
+    /**
+     * Count the items smaller than x. x does not need to be in the tree.
+     * @param x the item to rank.
+     * @return the number of items less than x, which is the index x has or would have in sorted order.
+     */
+    public int rank(AnyType x) {
+        return countLess(x, false);
     }
 
     /**
-     * Counts the number of nodes with exactly two children in the tree (added by Travis).
+     * Find the item at an index in sorted order.
+     * @param i the index, 0 for the smallest item.
+     * @return the i-th smallest item.
+     * @throws IndexOutOfBoundsException if i is negative or not less than size().
+     */
+    public AnyType select(int i) {
+        if (i < 0 || i >= size())
+            throw new IndexOutOfBoundsException("Index " + i + " of " + size());
+
+        BinaryNode<AnyType> t = root;
+        while (true) {
+            int leftSize = nodeSize(t.left);
+
+            if (i < leftSize)
+                t = t.left;
+            else if (i > leftSize) {
+                i -= leftSize + 1;
+                t = t.right;
+            } else
+                return t.element;
+        }
+    }
+
+    /**
+     * Count the items between k1 and k2 without visiting them.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return the number of items in [k1, k2], or 0 if k1 > k2.
+     */
+    public int countBetween(AnyType k1, AnyType k2) {
+        if (k1.compareTo(k2) > 0)
+            return 0;
+        return countLess(k2, true) - countLess(k1, false);
+    }
+
+    /**
+     * Recomputes every shape statistic of the tree in one traversal, without using the counts
+     * maintained by insert and remove. Meant for audits; the O(1) accessors are the normal path.
+     * @return the node counts, height and depth distribution of the tree.
+     */
+    public ShapeStats shapeStats() {
+        return shapeStats(root);
+    }
+
+    /**
+     * Computes the height of the tree (added by Travis).
+     * Constant time for a balanced tree, a full traversal otherwise.
+     * @return The number of edges on the longest root to leaf path, or -1 if the tree is empty.
+     */
+    public int height(){
+        if (balanced)
+            return nodeHeight(root);
+        else
+            return height(root);
+    }
+
+    /**
+     * Tests if the tree keeps itself AVL-balanced.
+     * @return true if the tree was constructed in balanced mode.
+     */
+    public boolean isBalanced(){
+        return balanced;
+    }
+
+    /**
+     * Counts the number of nodes with exactly two children in the tree in constant time (added by Travis).
      * @return The number of full nodes in the tree, or -1 if the tree is empty.
      */
     public int numTwoChildrenNodes(){
@@ -151,20 +387,115 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             return -1;
         }
         else
-            return numTwoChildrenNodes(root);
+            return childCounts[2];
+    }
+
+    /**
+     * Internal method to build a perfectly balanced subtree from sorted, distinct items.
+     * Children are built before their parent, so heights, sizes and child counts are final
+     * when the parent is created. The recursion depth is log2(N).
+     * @param items the items in ascending order.
+     * @param low index of the first item of the subtree.
+     * @param high index of the last item of the subtree.
+     * @return the root of the subtree, or null if low > high.
+     */
+    private BinaryNode<AnyType> build(AnyType[] items, int low, int high) {
+        if (low > high)
+            return null;
+
+        int mid = (low + high) >>> 1;
+        BinaryNode<AnyType> left = build(items, low, mid - 1);
+        BinaryNode<AnyType> right = build(items, mid + 1, high);
+        BinaryNode<AnyType> t = new BinaryNode<AnyType>(items[mid], left, right);
+
+        t.height = Math.max(nodeHeight(left), nodeHeight(right)) + 1;
+        tally(t);
+        return t;
+    }
+
+    /**
+     * Internal method to test if keys are sorted with no duplicates.
+     * @param keys the keys.
+     * @return true if every key is greater than the one before it.
+     */
+    private static boolean isStrictlyAscending(int[] keys) {
+        for (int i = 1; i < keys.length; i++)
+            if (keys[i - 1] >= keys[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Internal method to insert into an unbalanced tree without recursion,
+     * so degenerate trees from sorted input cannot overflow the stack.
+     * @param x the item to insert.
+     */
+    private void insertUnbalanced(AnyType x) {
+        if (root == null) {
+            root = new BinaryNode<AnyType>(x, null, null);
+            childCounts[0]++;
+            return;
+        }
+
+        // Count the new node into every subtree on the way down; undo it if x is a duplicate.
+        BinaryNode<AnyType> t = root;
+        while (true) {
+            int compareResult = x.compareTo(t.element);
+            t.size++;
+
+            if (compareResult < 0) {
+                if (t.left == null) {
+                    untally(t);
+                    t.left = new BinaryNode<AnyType>(x, null, null);
+                    tally(t);
+                    childCounts[0]++;
+                    return;
+                }
+                t = t.left;
+            } else if (compareResult > 0) {
+                if (t.right == null) {
+                    untally(t);
+                    t.right = new BinaryNode<AnyType>(x, null, null);
+                    tally(t);
+                    childCounts[0]++;
+                    return;
+                }
+                t = t.right;
+            } else {
+                adjustSizes(x, t, -1);  // Duplicate; do nothing
+                return;
+            }
+        }
+    }
+
+    /**
+     * Internal method to add delta to the size of every node on the path from the root down to,
+     * and including, the node holding x.
+     * @param x the item that ends the path.
+     * @param end the node holding x.
+     * @param delta the amount to add to each size.
+     */
+    private void adjustSizes(AnyType x, BinaryNode<AnyType> end, int delta) {
+        for (BinaryNode<AnyType> t = root; t != end; t = (x.compareTo(t.element) < 0) ? t.left : t.right)
+            t.size += delta;
+        end.size += delta;
     }
 
     /**
-     * Internal method to insert into a subtree.
+     * Internal method to insert into a balanced subtree. The recursion depth is the
+     * AVL height, at most about 1.44 log2(N), so it is kept recursive.
      * @param x the item to insert.
      * @param t the node that roots the subtree.
      * @return the new root of the subtree.
      */
     private BinaryNode<AnyType> insert(AnyType x, BinaryNode<AnyType> t) {
-        if (t == null)
+        if (t == null) {
+            childCounts[0]++;
             return new BinaryNode<AnyType>(x, null, null);
+        }
 
         int compareResult = x.compareTo(t.element);
+        untally(t);
 
         if (compareResult < 0)
             t.left = insert(x, t.left);
@@ -172,11 +503,59 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             t.right = insert(x, t.right);
         else
             ;  // Duplicate; do nothing
-        return t;
+        tally(t);
+        return balanced ? balance(t) : t;
     }
 
     /**
-     * Internal method to remove from a subtree.
+     * Internal method to remove from an unbalanced tree without recursion.
+     * A node with two children takes its successor's element and the successor is unlinked instead.
+     * @param x the item to remove.
+     */
+    private void removeUnbalanced(AnyType x) {
+        BinaryNode<AnyType> parent = null;
+        BinaryNode<AnyType> t = root;
+        int compareResult;
+
+        while (t != null && (compareResult = x.compareTo(t.element)) != 0) {
+            parent = t;
+            t = (compareResult < 0) ? t.left : t.right;
+        }
+
+        if (t == null)
+            return;   // Item not found; do nothing
+
+        adjustSizes(x, t, -1);
+
+        if (t.left != null && t.right != null) { // Two children
+            parent = t;
+            BinaryNode<AnyType> successor = t.right;
+            while (successor.left != null) {
+                parent = successor;
+                parent.size--;
+                successor = successor.left;
+            }
+            t.element = successor.element;
+            t = successor;
+        }
+
+        BinaryNode<AnyType> child = (t.left != null) ? t.left : t.right;
+        untally(t);
+        if (parent == null)
+            root = child;
+        else {
+            untally(parent);
+            if (parent.left == t)
+                parent.left = child;
+            else
+                parent.right = child;
+            tally(parent);
+        }
+    }
+
+    /**
+     * Internal method to remove from a balanced subtree. The recursion depth is the
+     * AVL height, so it is kept recursive.
      * @param x the item to remove.
      * @param t the node that roots the subtree.
      * @return the new root of the subtree.
@@ -186,6 +565,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             return t;   // Item not found; do nothing
 
         int compareResult = x.compareTo(t.element);
+        untally(t);
 
         if (compareResult < 0)
             t.left = remove(x, t.left);
@@ -196,21 +576,161 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             t.element = findMin(t.right).element;
             t.right = remove(t.element, t.right);
         } else
-            t = (t.left != null) ? t.left : t.right;
+            return (t.left != null) ? t.left : t.right;  // t is unlinked; its child is already balanced
+        tally(t);
+        return balanced ? balance(t) : t;
+    }
+
+    /**
+     * Internal method to restore the AVL property at t after an insert or remove below it.
+     * Assumes the subtrees of t are balanced and differ in height by at most 2.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private BinaryNode<AnyType> balance(BinaryNode<AnyType> t) {
+        if (t == null)
+            return t;
+
+        if (nodeHeight(t.left) - nodeHeight(t.right) > ALLOWED_IMBALANCE)
+            if (nodeHeight(t.left.left) >= nodeHeight(t.left.right))
+                t = rotateWithLeftChild(t);
+            else
+                t = doubleWithLeftChild(t);
+        else if (nodeHeight(t.right) - nodeHeight(t.left) > ALLOWED_IMBALANCE)
+            if (nodeHeight(t.right.right) >= nodeHeight(t.right.left))
+                t = rotateWithRightChild(t);
+            else
+                t = doubleWithRightChild(t);
+
+        update(t);
         return t;
     }
 
+    /**
+     * Rotate binary tree node with left child.
+     * For AVL trees, this is a single rotation for case 1.
+     * @param k2 the node to rotate.
+     * @return the new root.
+     */
+    private BinaryNode<AnyType> rotateWithLeftChild(BinaryNode<AnyType> k2) {
+        BinaryNode<AnyType> k1 = k2.left;
+        untally(k1);
+        untally(k2);
+        k2.left = k1.right;
+        k1.right = k2;
+        update(k2);
+        update(k1);
+        tally(k2);
+        tally(k1);
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * For AVL trees, this is a single rotation for case 4.
+     * @param k1 the node to rotate.
+     * @return the new root.
+     */
+    private BinaryNode<AnyType> rotateWithRightChild(BinaryNode<AnyType> k1) {
+        BinaryNode<AnyType> k2 = k1.right;
+        untally(k1);
+        untally(k2);
+        k1.right = k2.left;
+        k2.left = k1;
+        update(k1);
+        update(k2);
+        tally(k1);
+        tally(k2);
+        return k2;
+    }
+
+    /**
+     * Double rotate binary tree node: first left child with its right child;
+     * then node k3 with new left child.
+     * For AVL trees, this is a double rotation for case 2.
+     * @param k3 the node to rotate.
+     * @return the new root.
+     */
+    private BinaryNode<AnyType> doubleWithLeftChild(BinaryNode<AnyType> k3) {
+        k3.left = rotateWithRightChild(k3.left);
+        return rotateWithLeftChild(k3);
+    }
+
+    /**
+     * Double rotate binary tree node: first right child with its left child;
+     * then node k1 with new right child.
+     * For AVL trees, this is a double rotation for case 3.
+     * @param k1 the node to rotate.
+     * @return the new root.
+     */
+    private BinaryNode<AnyType> doubleWithRightChild(BinaryNode<AnyType> k1) {
+        k1.right = rotateWithLeftChild(k1.right);
+        return rotateWithRightChild(k1);
+    }
+
+    /**
+     * Return the stored height of node t, or -1, if null. Only maintained in balanced mode.
+     * @param t the node.
+     * @return the height of t.
+     */
+    private static int nodeHeight(BinaryNode<?> t) {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Remove t from the child count totals before its children change.
+     * @param t the node, not null.
+     */
+    private void untally(BinaryNode<AnyType> t) {
+        childCounts[children(t)]--;
+    }
+
+    /**
+     * Add t back to the child count totals after its children change.
+     * @param t the node, not null.
+     */
+    private void tally(BinaryNode<AnyType> t) {
+        childCounts[children(t)]++;
+    }
+
+    /**
+     * Count the children of node t.
+     * @param t the node, not null.
+     * @return 0, 1 or 2.
+     */
+    private static int children(BinaryNode<?> t) {
+        return (t.left != null ? 1 : 0) + (t.right != null ? 1 : 0);
+    }
+
+    /**
+     * Return the subtree size of node t, or 0, if null.
+     * @param t the node.
+     * @return the number of nodes in the subtree rooted at t.
+     */
+    private static int nodeSize(BinaryNode<?> t) {
+        return t == null ? 0 : t.size;
+    }
+
+    /**
+     * Recompute the stored height and subtree size of t from its children.
+     * @param t the node, not null.
+     */
+    private static void update(BinaryNode<?> t) {
+        t.height = Math.max(nodeHeight(t.left), nodeHeight(t.right)) + 1;
+        t.size = nodeSize(t.left) + nodeSize(t.right) + 1;
+    }
+
     /**
      * Internal method to find the smallest item in a subtree.
      * @param t the node that roots the subtree.
      * @return node containing the smallest item.
      */
     private BinaryNode<AnyType> findMin(BinaryNode<AnyType> t) {
-        if (t == null)
-            return null;
-        else if (t.left == null)
-            return t;
-        return findMin(t.left);
+        if (t != null)
+            while (t.left != null)
+                t = t.left;
+
+        return t;
     }
 
     /**
@@ -227,83 +747,48 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
     }
 
     /**
-     * Recursive method to print all values between k1 and k2 (added by Travis).
-     * @param t The BinaryNode to start at.
-     * @param k1 Lower bound (inclusive).
-     * @param k2 Upper bound (inclusive).
+     * Internal method to count the items less than x, or less than or equal to x, in one root to leaf walk.
+     * @param x the bound.
+     * @param inclusive true to also count an item equal to x.
+     * @return the number of items below the bound.
      */
-    private void printBetween(BinaryNode<AnyType> t, AnyType k1, AnyType k2){
-        if (t == null) return;
-
-        int compareResultK1 = k1.compareTo(t.element);
-        int compareResultK2 = k2.compareTo(t.element);
-
-        // K1 and K2 are less than current element, traverse left.
-        if (compareResultK1 < 0 && compareResultK2 < 0)
-            printBetween(t.left, k1, k2);
-        // K1 and K2 are greater than current element, traverse right.
-        if (compareResultK1 > 0 && compareResultK2 > 0)
-            printBetween(t.right, k1, k2);
-        // In between K1 and K2, traverse normally and print nodes.
-        else if (compareResultK1 < 0 && compareResultK2 > 0){
-            printBetween(t.left, k1, k2);
-            System.out.print(t.element + " ");
-            printBetween(t.right, k1, k2);
-        }
-        // Edge case, print the value if we are at K1 and check right subtree.
-        else if (compareResultK1 == 0){
-            System.out.print(t.element + " ");
-            printBetween(t.right, k1, k2);
-        }
-        // Edge case, ignore the right subtree if we are at K2.
-        else if ( compareResultK2 == 0){
-            System.out.print(t.element + " ");
-            printBetween(t.left, k1, k2);
+    private int countLess(AnyType x, boolean inclusive) {
+        BinaryNode<AnyType> t = root;
+        int count = 0;
+
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
+
+            if (compareResult < 0 || (compareResult == 0 && !inclusive))
+                t = t.left;
+            else {
+                count += nodeSize(t.left) + 1;
+                t = t.right;
+            }
         }
+
+        return count;
     }
 
     /**
      * Internal method to find an item in a subtree.
      * @param x is item to search for.
      * @param t the node that roots the subtree.
-     * @return node containing the matched item.
+     * @return node containing the matched item, or null if not found.
      */
-    private boolean contains(AnyType x, BinaryNode<AnyType> t) {
-        if (t == null)
-            return false;
-
-        int compareResult = x.compareTo(t.element);
-
-        if (compareResult < 0)
-            return contains(x, t.left);
-        else if (compareResult > 0)
-            return contains(x, t.right);
-        else
-            return true;    // Match
-    }
+    private BinaryNode<AnyType> find(AnyType x, BinaryNode<AnyType> t) {
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
 
-    /**
-     * Internal method to print a subtree in sorted order.
-     * @param t the node that roots the subtree.
-     */
-    private void printTree(BinaryNode<AnyType> t) {
-        if (t != null) {
-            printTree(t.left);
-            System.out.print(t.element + " ");
-            printTree(t.right);
+            if (compareResult < 0)
+                t = t.left;
+            else if (compareResult > 0)
+                t = t.right;
+            else
+                return t;    // Match
         }
-    }
 
-    /**
-     * Internal method to print a subtree in descending sorted order (Added by Travis).
-     * @param t the node that roots the subtree.
-     */
-    private void printTreeDescending(BinaryNode<AnyType> t){
-        if (t!= null){
-            printTreeDescending(t.right);
-            System.out.print(t.element + " ");
-            printTreeDescending(t.left);
-        }
+        return null;
     }
 
     /**
@@ -328,66 +813,160 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
     }
 
     /**
-     * Internal method to count the number of leaves in the BinarySearchTree starting at t (Added by Travis).
-     * @param t root BinaryNode of tree.
-     * @return number of leaves in tree.
+     * Internal method to measure a subtree in a single level-order pass.
+     * @param t the node that roots the subtree.
+     * @return the shape statistics of the subtree.
      */
-    private int numLeaves(BinaryNode<AnyType> t){
-        if (t == null) return 0;
-
-        int isLeaf = 0;
+    private ShapeStats shapeStats(BinaryNode<AnyType> t) {
+        Queue<BinaryNode<AnyType>> queue = new ArrayDeque<>();
+        int[] nodesAtDepth = new int[16];
+        int[] counts = new int[3];
+        int depth = 0;
 
-        if (t.left == null && t.right == null) isLeaf = 1;
+        if (t != null)
+            queue.add(t);
+
+        for (; !queue.isEmpty(); depth++) {
+            if (depth == nodesAtDepth.length)
+                nodesAtDepth = Arrays.copyOf(nodesAtDepth, 2 * depth);
+            nodesAtDepth[depth] = queue.size();
+
+            for (int i = queue.size(); i > 0; i--) {
+                t = queue.remove();
+                counts[children(t)]++;
+                if (t.left != null)
+                    queue.add(t.left);
+                if (t.right != null)
+                    queue.add(t.right);
+            }
+        }
 
-        return isLeaf + numLeaves(t.left) + numLeaves(t.right);
+        return new ShapeStats(counts, Arrays.copyOf(nodesAtDepth, depth));
     }
 
     /**
-     * Internal method to count the number of nodes with exactly one child
-     * in the BinarySearchTree starting at t (Added by Travis).
-     * @param t root BinaryNode of tree.
-     * @return int count of the number of nodes with exactly one child in the BinarySearchTree.
+     * Internal method to compute height of a subtree.
+     * A depth-first walk with an explicit stack of (node, depth) pairs in place of recursion, so the
+     * stack holds at most one pending sibling per level: O(h) memory, not the width of the tree.
+     * @param t the node that roots the subtree.
      */
-    private int numOneChildNodes(BinaryNode<AnyType> t){
-        if (t == null) return  0;
+    private int height(BinaryNode<AnyType> t) {
+        Deque<BinaryNode<AnyType>> stack = new ArrayDeque<>();
+        int[] depths = new int[16];     // depths[i] is the depth of the node i places from the bottom of stack
+        int height = -1;
 
-        int hasOneChild = 0, emptyNodes = 0;
+        if (t != null) {
+            stack.push(t);
+            depths[0] = 0;
+        }
 
-        if (t.left == null) emptyNodes++;
-        if (t.right == null) emptyNodes++;
-        if (emptyNodes == 1) hasOneChild = 1;
+        while (!stack.isEmpty()) {
+            int depth = depths[stack.size() - 1];
+            t = stack.pop();
+            height = Math.max(height, depth);
+
+            if (stack.size() + 2 > depths.length)
+                depths = Arrays.copyOf(depths, 2 * depths.length);
+            if (t.right != null) {
+                depths[stack.size()] = depth + 1;
+                stack.push(t.right);
+            }
+            if (t.left != null) {
+                depths[stack.size()] = depth + 1;
+                stack.push(t.left);
+            }
+        }
 
-        return hasOneChild + numOneChildNodes(t.left) + numOneChildNodes(t.right);
+        return height;
     }
 
     /**
-     * Internal method to count the number of nodes with exactly two children
-     * in the BinarySearchTree starting at t (Added by Travis).
-     * @param t root BinaryNode of tree.
-     * @return int count of the number of nodes with exactly two children in the BinarySearchTree.
+     * Shape statistics of a tree, as computed by shapeStats().
      */
-    private int numTwoChildrenNodes(BinaryNode<AnyType> t){
-        if (t == null) return 0;
-
-        int hasTwoChildren = 0;
+    public static final class ShapeStats {
+        public final int size;                  // Number of nodes
+        public final int leaves;                // Nodes with no children
+        public final int oneChildNodes;         // Nodes with exactly one child
+        public final int twoChildrenNodes;      // Nodes with exactly two children
+        public final int height;                // Edges on the longest root to leaf path, -1 if empty
+        private final int[] nodesAtDepth;       // nodesAtDepth[d] is the number of nodes d edges below the root
+
+        ShapeStats(int[] counts, int[] nodesAtDepth) {
+            this.leaves = counts[0];
+            this.oneChildNodes = counts[1];
+            this.twoChildrenNodes = counts[2];
+            this.size = leaves + oneChildNodes + twoChildrenNodes;
+            this.height = nodesAtDepth.length - 1;
+            this.nodesAtDepth = nodesAtDepth;
+        }
 
-        if(t.left != null && t.right != null) hasTwoChildren = 1;
+        /**
+         * @return a copy of the depth distribution; element d is the number of nodes at depth d.
+         */
+        public int[] nodesAtDepth() {
+            return nodesAtDepth.clone();
+        }
 
-        return hasTwoChildren + numTwoChildrenNodes(t.left) + numTwoChildrenNodes(t.right);
+        @Override
+        public String toString() {
+            return "size=" + size + ", leaves=" + leaves + ", oneChildNodes=" + oneChildNodes +
+                    ", twoChildrenNodes=" + twoChildrenNodes + ", height=" + height +
+                    ", nodesAtDepth=" + Arrays.toString(nodesAtDepth);
+        }
     }
 
-    /**
-     * Internal method to compute height of a subtree.
-     * @param t the node that roots the subtree.
-     */
-    private int height(BinaryNode<AnyType> t) {
-        if (t == null)
-            return -1;
-        else
-            return 1 + Math.max(height(t.left), height(t.right));
+    // Lazy in-order walk over [lo, hi], ascending or descending; a null bound is unbounded
+    private class RangeIterator implements Iterator<AnyType> {
+        private final AnyType lo;
+        private final AnyType hi;
+        private final boolean descending;
+        private final Deque<BinaryNode<AnyType>> stack = new ArrayDeque<>();  // Path of nodes still to visit
+
+        RangeIterator(AnyType lo, AnyType hi, boolean descending) {
+            this.lo = lo;
+            this.hi = hi;
+            this.descending = descending;
+
+            // Push the path to the first item in range, skipping subtrees entirely outside it.
+            BinaryNode<AnyType> t = root;
+            while (t != null) {
+                if (!descending && lo != null && t.element.compareTo(lo) < 0)
+                    t = t.right;
+                else if (descending && hi != null && t.element.compareTo(hi) > 0)
+                    t = t.left;
+                else {
+                    stack.push(t);
+                    t = descending ? t.right : t.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stack.isEmpty())
+                return false;
+
+            AnyType x = stack.peek().element;
+            if (descending ? (lo != null && x.compareTo(lo) < 0) : (hi != null && x.compareTo(hi) > 0)) {
+                stack.clear();  // Past the far bound; nothing left in range
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public AnyType next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            BinaryNode<AnyType> n = stack.pop();
+            for (BinaryNode<AnyType> t = descending ? n.left : n.right; t != null; t = descending ? t.right : t.left)
+                stack.push(t);
+            return n.element;
+        }
     }
 
-    // Basic node stored in unbalanced binary search trees
+    // Basic node stored in binary search trees
     private static class BinaryNode<AnyType> {
         // Constructors
         BinaryNode(AnyType theElement) {
@@ -398,17 +977,32 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             element = theElement;
             left = lt;
             right = rt;
+            size = 1 + nodeSize(lt) + nodeSize(rt);
         }
 
         AnyType element;            // The data in the node
         BinaryNode<AnyType> left;   // Left child
         BinaryNode<AnyType> right;  // Right child
+        int height;                 // Height, maintained in balanced mode only
+        int size;                   // Number of nodes in the subtree rooted here
     }
 
 
+    private static final int ALLOWED_IMBALANCE = 1;
+
     /**
      * The tree root.
      */
     private BinaryNode<AnyType> root;
 
+    /**
+     * Number of nodes with 0, 1 and 2 children, kept up to date by insert and remove.
+     */
+    private final int[] childCounts = new int[3];
+
+    /**
+     * True if insert and remove keep the tree AVL-balanced.
+     */
+    private final boolean balanced;
+
 }
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A thread-safe AVL tree for many reader threads and a few writers.
+ * The tree is held as an immutable PersistentBinarySearchTree published through a volatile field.
+ * Writers take a lock among themselves, build the next version by copying only the O(log N) nodes
+ * on the path to the change, and publish it with a single volatile write. Readers take no lock and
+ * never wait: each read loads the current version once and works on that snapshot, which no writer
+ * will ever modify, so a read never blocks on a writer, never retries and never sees a half-finished
+ * rotation.
+ * <p>
+ * A read sees every write published before it loaded the snapshot and none published after.
+ * Each write allocates O(log N) new nodes; the old versions are garbage once no reader holds them.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class ConcurrentBinarySearchTree<AnyType extends Comparable<? super AnyType>> {
+    /**
+     * Construct the tree.
+     */
+    public ConcurrentBinarySearchTree() {
+        snapshot = new PersistentBinarySearchTree<>();
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        synchronized (writeLock) {
+            snapshot = snapshot.insert(x);
+        }
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     */
+    public void remove(AnyType x) {
+        synchronized (writeLock) {
+            snapshot = snapshot.remove(x);
+        }
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if found.
+     */
+    public boolean contains(AnyType x) {
+        return snapshot.contains(x);
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item or null if empty.
+     */
+    public AnyType findMin() {
+        return snapshot.findMin();
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item or null if empty.
+     */
+    public AnyType findMax() {
+        return snapshot.findMax();
+    }
+
+    /**
+     * Collect the items between k1 and k2 in ascending order from one consistent version of the tree.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return the items in [k1, k2], empty if k1 > k2.
+     */
+    public List<AnyType> range(AnyType k1, AnyType k2) {
+        List<AnyType> items = new ArrayList<>();
+
+        for (Iterator<AnyType> it = snapshot.rangeIterator(k1, k2); it.hasNext(); )
+            items.add(it.next());
+        return items;
+    }
+
+    /**
+     * Get the current version of the tree, which stays unchanged for as long as the caller holds it.
+     * @return the snapshot.
+     */
+    public PersistentBinarySearchTree<AnyType> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the number of items in the tree.
+     * @return the number of items.
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    /**
+     * Serializes writers; readers never take it.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The current version of the tree, replaced by every write.
+     */
+    private volatile PersistentBinarySearchTree<AnyType> snapshot;
+}
@@ -0,0 +1,227 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A read-only index of int keys stored in Eytzinger (breadth-first) order: the root is at
+ * index 1 and the children of node k are at 2k and 2k + 1, so a search needs no child pointers
+ * and the top levels of every search share the first few cache lines.
+ * <p>
+ * The search loop only computes the next index from one comparison, with no early exit, which
+ * the JIT compiles to a conditional move rather than an unpredictable branch, and it touches
+ * nodes a few levels ahead so their cache misses overlap. The index is never modified after
+ * construction, so it may be read from any number of threads.
+ */
+public class EytzingerIndex {
+    /**
+     * Largest number of keys; a search steps to index 2n + 1, which must still fit in an int.
+     */
+    public static final int MAX_SIZE = (1 << 30) - 1;
+
+    /**
+     * Descendants of k three levels down start at index 8k.
+     */
+    private static final int PREFETCH_STRIDE = 8;
+
+    private final int[] layout;     // layout[1..n] holds the keys in breadth-first order; layout[0] is unused
+    private final int n;
+
+    /**
+     * Construct the index from keys in ascending order. Duplicate keys are kept.
+     * @param sorted the keys in ascending order; the array is copied and not modified.
+     * @throws IllegalArgumentException if the keys are not in ascending order or there are more than MAX_SIZE.
+     */
+    public EytzingerIndex(int[] sorted) {
+        if (sorted.length > MAX_SIZE)
+            throw new IllegalArgumentException("At most " + MAX_SIZE + " keys can be indexed.");
+        for (int i = 1; i < sorted.length; i++)
+            if (sorted[i - 1] > sorted[i])
+                throw new IllegalArgumentException("Keys must be in ascending order; index " + i + " is out of order.");
+
+        n = sorted.length;
+        layout = new int[n + 1];
+        fill(sorted, 0, 1);
+    }
+
+    /**
+     * Construct the index from the items of a tree.
+     * @param tree the tree to copy; it is not modified.
+     */
+    public EytzingerIndex(BinarySearchTree<Integer> tree) {
+        this(toArray(tree, tree.size()));
+    }
+
+    /**
+     * Construct the index from the items of a primitive tree.
+     * @param tree the tree to copy; it is not modified.
+     */
+    public EytzingerIndex(IntBinarySearchTree tree) {
+        this(toArray(tree.iterator(), tree.size()));
+    }
+
+    /**
+     * Find a key in the index.
+     * @param x the key to search for.
+     * @return true if found.
+     */
+    public boolean contains(int x) {
+        int k = lowerBound(x);
+        return k != 0 && layout[k] == x;
+    }
+
+    /**
+     * Find the smallest key that is not less than x.
+     * @param x the key to search for.
+     * @return the smallest key >= x.
+     * @throws NoSuchElementException if every key is less than x.
+     */
+    public int ceiling(int x) {
+        int k = lowerBound(x);
+        if (k == 0)
+            throw new NoSuchElementException("No key is >= " + x + ".");
+        return layout[k];
+    }
+
+    /**
+     * Count the keys between k1 and k2 by walking the range in order.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return the number of keys in [k1, k2], 0 if k1 > k2.
+     */
+    public int countBetween(int k1, int k2) {
+        int count = 0;
+
+        for (int k = lowerBound(k1); k != 0 && layout[k] <= k2; k = successor(k))
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Iterate over the keys between k1 and k2 in ascending order.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the keys in [k1, k2], empty if k1 > k2.
+     */
+    public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+        return new PrimitiveIterator.OfInt() {
+            private int k = lowerBound(k1);
+
+            @Override
+            public boolean hasNext() {
+                return k != 0 && layout[k] <= k2;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                int x = layout[k];
+                k = successor(k);
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Get the number of keys in the index.
+     * @return the number of keys.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Internal method to find the first key that is not less than x.
+     * The loop descends a full path, going right whenever the key is less than x. The index at the
+     * end encodes the path; dropping the trailing right turns and the final left turn leaves the
+     * last node where the search went left, which holds the answer.
+     * <p>
+     * Java has no prefetch instruction, so each step also loads the first of the eight
+     * descendants of k three levels down. Nothing waits for that load, so the CPU overlaps its
+     * cache miss with the next three steps instead of missing once per level.
+     * @param x the key to search for.
+     * @return the layout index of the smallest key >= x, or 0 if there is none.
+     */
+    private int lowerBound(int x) {
+        int k = 1, ahead = 0;
+
+        while (k <= n) {
+            ahead += layout[(int) Math.min((long) PREFETCH_STRIDE * k, n)];   // 8k passes 2^31 once k >= 2^28
+            k = 2 * k + (layout[k] < x ? 1 : 0);
+        }
+
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+
+        // k <= n always holds here; testing ahead only keeps the JIT from dropping the early loads.
+        return (k > n && ahead == 0) ? 0 : k;
+    }
+
+    /**
+     * Internal method to find the in-order successor of a layout index.
+     * @param k a layout index between 1 and n.
+     * @return the layout index of the next larger key, or 0 if k holds the largest key.
+     */
+    private int successor(int k) {
+        if (2 * k + 1 <= n) {
+            // Leftmost node of the right subtree.
+            k = 2 * k + 1;
+            while (2 * k <= n)
+                k = 2 * k;
+            return k;
+        }
+
+        // Climb past every ancestor reached from its right child, then one more step.
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * Internal method to place the sorted keys by an in-order walk of the implicit tree.
+     * The recursion depth is the height of the layout, about log2(n).
+     * @param sorted the keys in ascending order.
+     * @param i the next key to place.
+     * @param k the layout index of the subtree root.
+     * @return the next key to place after this subtree.
+     */
+    private int fill(int[] sorted, int i, int k) {
+        if (k <= n) {
+            i = fill(sorted, i, 2 * k);
+            layout[k] = sorted[i++];
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Internal method to copy the items of a tree into an array in ascending order.
+     * @param items the items in ascending order.
+     * @param size the number of items.
+     * @return the array of items.
+     */
+    private static int[] toArray(Iterable<Integer> items, int size) {
+        int[] keys = new int[size];
+        int i = 0;
+
+        for (int x : items)
+            keys[i++] = x;
+
+        return (i == size) ? keys : Arrays.copyOf(keys, i);
+    }
+
+    /**
+     * Internal method to copy the items of a primitive iterator into an array.
+     * @param items the items in ascending order.
+     * @param size the number of items.
+     * @return the array of items.
+     */
+    private static int[] toArray(PrimitiveIterator.OfInt items, int size) {
+        int[] keys = new int[size];
+        int i = 0;
+
+        while (items.hasNext())
+            keys[i++] = items.nextInt();
+
+        return (i == size) ? keys : Arrays.copyOf(keys, i);
+    }
+}
@@ -0,0 +1,514 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A B+tree of primitive int keys with a configurable fanout.
+ * Every key lives in a leaf; inner nodes only hold separator keys, and the leaves are linked in
+ * ascending order so range scans run along the leaves without going back up the tree.
+ * <p>
+ * A node holds up to maxKeys keys in one int[], so with maxKeys = 15 the keys of a node take about
+ * one 64 byte cache line and a lookup misses cache about log16(N) times instead of log2(N).
+ * Every node except the root is kept at least half full, so the height is O(log N / log maxKeys).
+ */
+public class IntBPlusTree {
+    /**
+     * Keys per node that fill one 64 byte cache line.
+     */
+    public static final int CACHE_LINE_KEYS = 15;
+
+    private final int maxKeys;
+    private final int minKeys;      // Fewest keys a non-root node may hold
+    private Node root;
+    private int size;
+    private int splitKey;           // Separator for the node returned by the last split
+
+    /**
+     * Construct the tree with nodes of one cache line.
+     */
+    public IntBPlusTree() {
+        this(CACHE_LINE_KEYS);
+    }
+
+    /**
+     * Construct the tree.
+     * @param maxKeys the most keys a node may hold; 15, 31 or 63 fill 1, 2 or 4 cache lines.
+     * @throws IllegalArgumentException if maxKeys is less than 3.
+     */
+    public IntBPlusTree(int maxKeys) {
+        if (maxKeys < 3)
+            throw new IllegalArgumentException("A node must hold at least 3 keys.");
+
+        this.maxKeys = maxKeys;
+        this.minKeys = maxKeys / 2;
+        makeEmpty();
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public void insert(int x) {
+        Node sibling = insert(x, root);
+
+        if (sibling != null) {
+            // The root split; grow the tree by one level.
+            Inner newRoot = new Inner(maxKeys);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     */
+    public void remove(int x) {
+        remove(x, root);
+
+        if (root instanceof Inner && root.count == 0)
+            root = ((Inner) root).children[0];    // The root lost its last separator; shrink by one level
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if found.
+     */
+    public boolean contains(int x) {
+        Leaf leaf = findLeaf(x);
+        int i = lowerBound(leaf.keys, leaf.count, x);
+        return i < leaf.count && leaf.keys[i] == x;
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return the smallest item.
+     * @throws NoSuchElementException if the tree is empty.
+     */
+    public int findMin() {
+        if (isEmpty())
+            throw new NoSuchElementException("The tree is empty.");
+
+        Node t = root;
+        while (t instanceof Inner)
+            t = ((Inner) t).children[0];
+        return t.keys[0];
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     * @throws NoSuchElementException if the tree is empty.
+     */
+    public int findMax() {
+        if (isEmpty())
+            throw new NoSuchElementException("The tree is empty.");
+
+        Node t = root;
+        while (t instanceof Inner)
+            t = ((Inner) t).children[t.count];
+        return t.keys[t.count - 1];
+    }
+
+    /**
+     * Make the tree logically empty.
+     */
+    public void makeEmpty() {
+        root = new Leaf(maxKeys);
+        size = 0;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of items in the tree.
+     * @return the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the height of the tree.
+     * @return the number of edges from the root to a leaf; every leaf is at the same depth.
+     */
+    public int height() {
+        int height = 0;
+
+        for (Node t = root; t instanceof Inner; t = ((Inner) t).children[0])
+            height++;
+
+        return height;
+    }
+
+    /**
+     * Iterate over the items between k1 and k2 in ascending order, following the leaf links.
+     * Do not modify the tree while iterating.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the items in [k1, k2], empty if k1 > k2.
+     */
+    public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+        Leaf start = findLeaf(k1);
+
+        return new PrimitiveIterator.OfInt() {
+            private Leaf leaf = start;
+            private int i = lowerBound(start.keys, start.count, k1);
+
+            @Override
+            public boolean hasNext() {
+                while (leaf != null && i == leaf.count) {
+                    leaf = leaf.next;
+                    i = 0;
+                }
+                return leaf != null && leaf.keys[i] <= k2;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return leaf.keys[i++];
+            }
+        };
+    }
+
+    /**
+     * Iterate over the whole tree in ascending order.
+     * @return an iterator over every item, smallest first.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Print the tree level by level, one line per level and each node's keys in brackets.
+     */
+    public void levelOrder() {
+        if (isEmpty()) {
+            System.out.println("Empty tree.");
+            return;
+        }
+
+        List<Node> level = List.of(root);
+
+        while (!level.isEmpty()) {
+            StringBuilder line = new StringBuilder();
+            List<Node> below = new ArrayList<>();
+
+            for (Node n : level) {
+                line.append('[');
+                for (int i = 0; i < n.count; i++)
+                    line.append(i == 0 ? "" : " ").append(n.keys[i]);
+                line.append("] ");
+
+                if (n instanceof Inner)
+                    for (int i = 0; i <= n.count; i++)
+                        below.add(((Inner) n).children[i]);
+            }
+
+            System.out.println(line.toString().trim());
+            level = below;
+        }
+    }
+
+    /**
+     * Internal method to find the leaf whose key range covers x.
+     * @param x the key to search for.
+     * @return the leaf.
+     */
+    private Leaf findLeaf(int x) {
+        Node t = root;
+
+        while (t instanceof Inner)
+            t = ((Inner) t).children[upperBound(t.keys, t.count, x)];
+
+        return (Leaf) t;
+    }
+
+    /**
+     * Internal method to insert into a subtree.
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the new right sibling if t split, with its separator in splitKey, or null.
+     */
+    private Node insert(int x, Node t) {
+        if (t instanceof Leaf) {
+            Leaf leaf = (Leaf) t;
+            int i = lowerBound(leaf.keys, leaf.count, x);
+
+            if (i < leaf.count && leaf.keys[i] == x)
+                return null;    // Duplicate; do nothing
+
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.count - i);
+            leaf.keys[i] = x;
+            leaf.count++;
+            size++;
+            return (leaf.count > maxKeys) ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) t;
+        int i = upperBound(inner.keys, inner.count, x);
+        Node sibling = insert(x, inner.children[i]);
+
+        if (sibling == null)
+            return null;
+
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.count - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.count - i);
+        inner.keys[i] = splitKey;
+        inner.children[i + 1] = sibling;
+        inner.count++;
+        return (inner.count > maxKeys) ? splitInner(inner) : null;
+    }
+
+    /**
+     * Internal method to move the upper half of an overfull leaf into a new leaf.
+     * @param leaf the leaf holding maxKeys + 1 keys.
+     * @return the new right sibling; splitKey is set to its smallest key.
+     */
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(maxKeys);
+        int mid = leaf.count / 2;
+
+        right.count = leaf.count - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.count);
+        leaf.count = mid;
+
+        right.next = leaf.next;
+        leaf.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    /**
+     * Internal method to move the upper half of an overfull inner node into a new node.
+     * The middle separator moves up to the parent rather than into either half.
+     * @param inner the node holding maxKeys + 1 keys.
+     * @return the new right sibling; splitKey is set to the separator to move up.
+     */
+    private Inner splitInner(Inner inner) {
+        Inner right = new Inner(maxKeys);
+        int mid = inner.count / 2;
+
+        right.count = inner.count - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+        splitKey = inner.keys[mid];
+
+        for (int i = mid + 1; i <= inner.count; i++)
+            inner.children[i] = null;
+        inner.count = mid;
+        return right;
+    }
+
+    /**
+     * Internal method to remove from a subtree, refilling any child left less than half full.
+     * Separators are not updated when their key is removed; they still divide the subtrees correctly.
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return true if x was found and removed.
+     */
+    private boolean remove(int x, Node t) {
+        if (t instanceof Leaf) {
+            int i = lowerBound(t.keys, t.count, x);
+
+            if (i == t.count || t.keys[i] != x)
+                return false;   // Item not found; do nothing
+
+            System.arraycopy(t.keys, i + 1, t.keys, i, t.count - i - 1);
+            t.count--;
+            size--;
+            return true;
+        }
+
+        Inner inner = (Inner) t;
+        int i = upperBound(inner.keys, inner.count, x);
+
+        if (!remove(x, inner.children[i]))
+            return false;
+        if (inner.children[i].count < minKeys)
+            refill(inner, i);
+        return true;
+    }
+
+    /**
+     * Internal method to bring a child back to minKeys by borrowing a key from a sibling that can
+     * spare one, or else merging it with a sibling.
+     * @param parent the parent of the child.
+     * @param i the index of the child in parent.
+     */
+    private void refill(Inner parent, int i) {
+        if (i > 0 && parent.children[i - 1].count > minKeys)
+            borrowFromLeft(parent, i);
+        else if (i < parent.count && parent.children[i + 1].count > minKeys)
+            borrowFromRight(parent, i);
+        else if (i > 0)
+            merge(parent, i - 1);
+        else
+            merge(parent, i);
+    }
+
+    /**
+     * Internal method to move the largest key of child i - 1 to the front of child i.
+     * @param parent the parent of both children.
+     * @param i the index of the child that receives the key.
+     */
+    private void borrowFromLeft(Inner parent, int i) {
+        Node left = parent.children[i - 1], child = parent.children[i];
+
+        System.arraycopy(child.keys, 0, child.keys, 1, child.count);
+
+        if (child instanceof Leaf) {
+            child.keys[0] = left.keys[left.count - 1];
+            parent.keys[i - 1] = child.keys[0];
+        } else {
+            // Rotate through the parent: its separator comes down and the left node's last key goes up.
+            Inner l = (Inner) left, c = (Inner) child;
+            System.arraycopy(c.children, 0, c.children, 1, c.count + 1);
+            c.keys[0] = parent.keys[i - 1];
+            c.children[0] = l.children[l.count];
+            l.children[l.count] = null;
+            parent.keys[i - 1] = l.keys[l.count - 1];
+        }
+
+        left.count--;
+        child.count++;
+    }
+
+    /**
+     * Internal method to move the smallest key of child i + 1 to the end of child i.
+     * @param parent the parent of both children.
+     * @param i the index of the child that receives the key.
+     */
+    private void borrowFromRight(Inner parent, int i) {
+        Node child = parent.children[i], right = parent.children[i + 1];
+
+        if (child instanceof Leaf) {
+            child.keys[child.count] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            parent.keys[i] = right.keys[0];
+        } else {
+            // Rotate through the parent: its separator comes down and the right node's first key goes up.
+            Inner c = (Inner) child, r = (Inner) right;
+            c.keys[c.count] = parent.keys[i];
+            c.children[c.count + 1] = r.children[0];
+            parent.keys[i] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.count - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.count);
+            r.children[r.count] = null;
+        }
+
+        child.count++;
+        right.count--;
+    }
+
+    /**
+     * Internal method to merge child j + 1 into child j and drop the separator between them.
+     * @param parent the parent of both children.
+     * @param j the index of the left child.
+     */
+    private void merge(Inner parent, int j) {
+        Node left = parent.children[j], right = parent.children[j + 1];
+
+        if (left instanceof Leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            ((Leaf) left).next = ((Leaf) right).next;
+        } else {
+            // The separator comes down between the two halves.
+            Inner l = (Inner) left, r = (Inner) right;
+            l.keys[l.count] = parent.keys[j];
+            System.arraycopy(r.keys, 0, l.keys, l.count + 1, r.count);
+            System.arraycopy(r.children, 0, l.children, l.count + 1, r.count + 1);
+            l.count += r.count + 1;
+        }
+
+        System.arraycopy(parent.keys, j + 1, parent.keys, j, parent.count - j - 1);
+        System.arraycopy(parent.children, j + 2, parent.children, j + 1, parent.count - j - 1);
+        parent.children[parent.count] = null;
+        parent.count--;
+    }
+
+    /**
+     * Internal method to count the keys less than x.
+     * @param keys the keys of a node in ascending order.
+     * @param count the number of keys in use.
+     * @param x the key to search for.
+     * @return the index of the first key >= x, or count if there is none.
+     */
+    private static int lowerBound(int[] keys, int count, int x) {
+        int low = 0, high = count;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    /**
+     * Internal method to count the keys not greater than x, which is the child of an inner node to follow.
+     * @param keys the keys of a node in ascending order.
+     * @param count the number of keys in use.
+     * @param x the key to search for.
+     * @return the index of the first key > x, or count if there is none.
+     */
+    private static int upperBound(int[] keys, int count, int x) {
+        int low = 0, high = count;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    // A node of the tree; keys has room for one extra key while a node is being split
+    private abstract static class Node {
+        Node(int maxKeys) {
+            keys = new int[maxKeys + 1];
+        }
+
+        final int[] keys;   // Keys in ascending order; in an inner node, keys[i] divides children[i] from children[i + 1]
+        int count;          // Number of keys in use
+    }
+
+    // Leaf holding the keys themselves, linked to the next leaf in key order
+    private static final class Leaf extends Node {
+        Leaf(int maxKeys) {
+            super(maxKeys);
+        }
+
+        Leaf next;          // Next leaf in ascending order, or null for the last leaf
+    }
+
+    // Inner node holding separators and count + 1 children
+    private static final class Inner extends Node {
+        Inner(int maxKeys) {
+            super(maxKeys);
+            children = new Node[maxKeys + 2];
+        }
+
+        final Node[] children;
+    }
+}
@@ -0,0 +1,334 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * An unbalanced binary search tree of primitive int keys, stored as a struct of arrays.
+ * Node n is keys[n], left[n] and right[n]; child links are array indexes, with NIL for no child.
+ * A key costs 12 bytes with no object header, no boxed Integer and no references for the
+ * garbage collector to trace, and nodes allocated together sit next to each other in memory.
+ * <p>
+ * Removed nodes go on a free list threaded through left[] and are reused by later inserts,
+ * so the arrays only grow when the tree is larger than it has ever been.
+ * All operations are iterative, so a degenerate tree cannot overflow the stack.
+ */
+public class IntBinarySearchTree {
+    /**
+     * Index that stands for a missing node.
+     */
+    private static final int NIL = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] left;         // Left child of each node, or the next free node for a node on the free list
+    private int[] right;        // Right child of each node
+    private int root = NIL;
+    private int free = NIL;     // Head of the free list
+    private int used;           // Nodes ever handed out; indexes from used up have never held a key
+    private int size;
+
+    /**
+     * Construct the tree.
+     */
+    public IntBinarySearchTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct the tree with room for capacity keys before the arrays grow.
+     * @param capacity the expected number of keys.
+     */
+    public IntBinarySearchTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public void insert(int x) {
+        if (root == NIL) {
+            root = allocate(x);
+            return;
+        }
+
+        int t = root;
+        while (true) {
+            if (x < keys[t]) {
+                if (left[t] == NIL) {
+                    int n = allocate(x);    // May replace the arrays, so allocate before indexing left
+                    left[t] = n;
+                    return;
+                }
+                t = left[t];
+            } else if (x > keys[t]) {
+                if (right[t] == NIL) {
+                    int n = allocate(x);
+                    right[t] = n;
+                    return;
+                }
+                t = right[t];
+            } else
+                return;     // Duplicate; do nothing
+        }
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     */
+    public void remove(int x) {
+        int parent = NIL, t = root;
+        boolean fromLeft = false;
+
+        while (t != NIL && keys[t] != x) {
+            parent = t;
+            fromLeft = x < keys[t];
+            t = fromLeft ? left[t] : right[t];
+        }
+
+        if (t == NIL)
+            return;     // Item not found; do nothing
+
+        if (left[t] != NIL && right[t] != NIL) { // Two children
+            // Move the successor's key up, then unlink the successor, which has no left child.
+            int successorParent = t, successor = right[t];
+            while (left[successor] != NIL) {
+                successorParent = successor;
+                successor = left[successor];
+            }
+
+            keys[t] = keys[successor];
+            if (successorParent == t)
+                right[t] = right[successor];
+            else
+                left[successorParent] = right[successor];
+            release(successor);
+        } else {
+            int child = (left[t] != NIL) ? left[t] : right[t];
+            if (parent == NIL)
+                root = child;
+            else if (fromLeft)
+                left[parent] = child;
+            else
+                right[parent] = child;
+            release(t);
+        }
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if found.
+     */
+    public boolean contains(int x) {
+        int t = root;
+
+        while (t != NIL) {
+            int k = keys[t];
+            if (x < k)
+                t = left[t];
+            else if (x > k)
+                t = right[t];
+            else
+                return true;    // Match
+        }
+
+        return false;
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return the smallest item.
+     * @throws NoSuchElementException if the tree is empty.
+     */
+    public int findMin() {
+        if (isEmpty())
+            throw new NoSuchElementException("The tree is empty.");
+
+        int t = root;
+        while (left[t] != NIL)
+            t = left[t];
+        return keys[t];
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     * @throws NoSuchElementException if the tree is empty.
+     */
+    public int findMax() {
+        if (isEmpty())
+            throw new NoSuchElementException("The tree is empty.");
+
+        int t = root;
+        while (right[t] != NIL)
+            t = right[t];
+        return keys[t];
+    }
+
+    /**
+     * Make the tree logically empty. The arrays are kept for reuse.
+     */
+    public void makeEmpty() {
+        root = free = NIL;
+        used = size = 0;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of items in the tree.
+     * @return the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of nodes the arrays can hold before they grow.
+     * @return the capacity in nodes; the tree uses 12 bytes per node of capacity.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Print the tree contents in sorted order on one line, each key followed by a space, as
+     * BinarySearchTree.printTree does.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); )
+                System.out.print(it.nextInt() + " ");
+    }
+
+    /**
+     * Iterate over the whole tree in ascending order without boxing.
+     * @return an iterator over every item, smallest first.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new RangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Iterate over the items between k1 and k2 in ascending order without boxing.
+     * Do not modify the tree while iterating.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the items in [k1, k2], empty if k1 > k2.
+     */
+    public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+        return new RangeIterator(k1, k2);
+    }
+
+    /**
+     * Internal method to take a node off the free list, or a fresh one if the list is empty.
+     * @param x the key of the new node.
+     * @return the index of the new leaf.
+     */
+    private int allocate(int x) {
+        int n;
+
+        if (free != NIL) {
+            n = free;
+            free = left[n];
+        } else {
+            if (used == keys.length)
+                grow();
+            n = used++;
+        }
+
+        keys[n] = x;
+        left[n] = NIL;
+        right[n] = NIL;
+        size++;
+        return n;
+    }
+
+    /**
+     * Internal method to put an unlinked node on the free list.
+     * @param n the index of the node.
+     */
+    private void release(int n) {
+        left[n] = free;
+        free = n;
+        size--;
+    }
+
+    /**
+     * Internal method to double the capacity of the node arrays.
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+        if (capacity < 0)
+            throw new IllegalStateException("The tree cannot hold more than 2^31 - 1 nodes.");
+
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+    }
+
+    // Lazy in-order walk over [lo, hi] using a stack of node indexes
+    private class RangeIterator implements PrimitiveIterator.OfInt {
+        private final int hi;
+        private int[] stack = new int[32];  // Path of nodes still to visit
+        private int depth;
+
+        RangeIterator(int lo, int hi) {
+            this.hi = hi;
+
+            // Push the path to the first item in range, skipping subtrees entirely below it.
+            int t = root;
+            while (t != NIL) {
+                if (keys[t] < lo)
+                    t = right[t];
+                else {
+                    push(t);
+                    t = left[t];
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (depth == 0)
+                return false;
+
+            if (keys[stack[depth - 1]] > hi) {
+                depth = 0;  // Past the upper bound; nothing left in range
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            int n = stack[--depth];
+            for (int t = right[n]; t != NIL; t = left[t])
+                push(t);
+            return keys[n];
+        }
+
+        private void push(int n) {
+            if (depth == stack.length)
+                stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = n;
+        }
+    }
+}
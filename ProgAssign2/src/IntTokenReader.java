@@ -0,0 +1,195 @@
+/****************************************************
+ *  Program Title: Int Token Reader                 *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Streams whitespace separated ints from a channel, parsing them straight from the bytes.
+ * Input is read through one fixed buffer, so memory use does not depend on the input size and
+ * reading a token creates no String and no boxed Integer.
+ * <p>
+ * A token is an optional + or - followed by ASCII digits, within the int range. Any other token
+ * is skipped and counted as bad instead of throwing; badTokens and firstBadOffset report them.
+ * Tokens are separated by spaces, tabs and line breaks.
+ */
+public final class IntTokenReader implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final ReadableByteChannel in;
+    private final byte[] bytes = new byte[BUFFER_BYTES];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;               // Next byte to parse in bytes
+    private int limit;                  // End of the bytes read so far
+    private long bufferOffset;          // Input offset of bytes[0]
+    private int value;
+    private long goodTokens;
+    private long badTokens;
+    private long firstBadOffset = -1;
+
+    /**
+     * Construct a reader over a channel, such as Channels.newChannel(System.in).
+     * @param in The channel to read. It is closed by close.
+     */
+    public IntTokenReader(ReadableByteChannel in) {
+        this.in = in;
+    }
+
+    /**
+     * Open a reader over a file.
+     * @param file The file to read.
+     * @return The reader, positioned before the first token.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static IntTokenReader open(Path file) throws IOException {
+        return new IntTokenReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Advance to the next valid int, skipping and counting bad tokens on the way.
+     * @return true if an int was read and is available from value, false at the end of the input.
+     * @throws IOException if reading the channel fails.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int b = read();
+            while (isSeparator(b))
+                b = read();
+            if (b < 0)
+                return false;
+
+            long start = bufferOffset + position - 1;
+            boolean negative = (b == '-');
+            if (b == '-' || b == '+')
+                b = read();
+
+            // Accumulate the magnitude in a long; stop growing it once it is past any int so it cannot overflow.
+            long magnitude = 0;
+            int digits = 0;
+            boolean valid = true;
+            for (; b >= 0 && !isSeparator(b); b = read()) {
+                int digit = b - '0';
+                if (digit < 0 || digit > 9)
+                    valid = false;
+                else {
+                    digits++;
+                    if (magnitude <= Integer.MAX_VALUE + 1L)
+                        magnitude = magnitude * 10 + digit;
+                }
+            }
+
+            if (valid && digits > 0 && magnitude <= (negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE)) {
+                value = (int) (negative ? -magnitude : magnitude);
+                goodTokens++;
+                return true;
+            }
+
+            badTokens++;
+            if (firstBadOffset < 0)
+                firstBadOffset = start;
+        }
+    }
+
+    /**
+     * @return the int read by the last successful call to next.
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Pass every remaining valid int to a consumer, such as tree::insert.
+     * @param sink The consumer of the ints, in input order.
+     * @return The number of ints passed to sink.
+     * @throws IOException if reading the channel fails.
+     */
+    public long forEachRemaining(IntConsumer sink) throws IOException {
+        long count = 0;
+
+        while (next()) {
+            sink.accept(value);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the number of valid ints read so far.
+     */
+    public long goodTokens() {
+        return goodTokens;
+    }
+
+    /**
+     * @return the number of tokens skipped so far because they were not valid ints.
+     */
+    public long badTokens() {
+        return badTokens;
+    }
+
+    /**
+     * @return the byte offset in the input of the first bad token, or -1 if there was none.
+     */
+    public long firstBadOffset() {
+        return firstBadOffset;
+    }
+
+    /**
+     * Close the underlying channel.
+     * @throws IOException if closing the channel fails.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Internal method to read one byte, refilling the buffer when it runs out.
+     * @return The byte as an unsigned value, or -1 at the end of the input.
+     * @throws IOException if reading the channel fails.
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return bytes[position++] & 0xff;
+    }
+
+    /**
+     * Internal method to replace the consumed buffer with the next bytes of the input.
+     * @return true if at least one byte was read, false at the end of the input.
+     * @throws IOException if reading the channel fails.
+     */
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        position = limit = 0;
+        buffer.clear();
+
+        int n;
+        do {
+            n = in.read(buffer);
+        } while (n == 0);
+
+        if (n < 0)
+            return false;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Internal method to test for a byte that separates tokens.
+     * @param b A byte as returned by read.
+     * @return true for a space, tab, line feed, carriage return or form feed.
+     */
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+}
@@ -0,0 +1,152 @@
+/****************************************************
+ *  Program Title: Latency Histogram                *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of nanosecond latencies with HDR-style log-linear buckets.
+ * Values below 32 have their own bucket; above that every power of two is split into 16 buckets,
+ * so any recorded value is reported within 1/16 (about 6%) of its true value.
+ * <p>
+ * record may be called from any number of threads. It only updates atomics in preallocated
+ * arrays, so it never allocates or blocks.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;                // 16 per power of two
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;                    // Exact buckets for 0 to 31
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;    // Enough for Long.MAX_VALUE
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Construct an empty histogram.
+     * @param name The name the histogram is exported under.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record one latency. Negative values are recorded as zero.
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+
+        counts.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos))
+            current = max.get();
+    }
+
+    /**
+     * Record the time elapsed since startNanos, as returned by System.nanoTime().
+     * @param startNanos The start time of the operation.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Find the latency at or below which the given fraction of recorded values fall.
+     * @param quantile A fraction between 0 and 1, for example 0.99 for p99.
+     * @return The upper edge of the bucket holding the quantile, capped at max, or 0 if nothing was recorded.
+     */
+    public long percentile(double quantile) {
+        long n = count.get();
+        if (n == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(upperEdge(i), max.get());
+        }
+
+        return max.get();
+    }
+
+    /**
+     * @return the name the histogram is exported under.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * @return the largest recorded value.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        long n = count.get();
+        return (n == 0) ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Clear every recorded value. Values recorded concurrently with reset may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Internal method to find the bucket of a value.
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    private static int bucket(long value) {
+        if (value < LINEAR_LIMIT)
+            return (int) value;
+
+        // Keep the top SUB_BUCKET_BITS + 1 bits; the leading one selects the power of two.
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Internal method to find the largest value that falls in a bucket.
+     * @param bucket The bucket index.
+     * @return The largest value of the bucket.
+     */
+    private static long upperEdge(int bucket) {
+        if (bucket < LINEAR_LIMIT)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,113 @@
+/****************************************************
+ *  Program Title: Metrics                          *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A process-wide registry of named latency timers and counters.
+ * Look a timer or counter up once and keep the reference; recording through the reference never
+ * allocates and is safe from many threads. Only the first lookup of a name creates anything.
+ */
+public final class Metrics {
+    private static final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Get the timer registered under name, creating it on first use.
+     * @param name The timer name.
+     * @return The latency histogram for name.
+     */
+    public static LatencyHistogram timer(String name) {
+        LatencyHistogram timer = timers.get(name);
+        return (timer != null) ? timer : timers.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Get the counter registered under name, creating it on first use.
+     * @param name The counter name.
+     * @return The counter for name.
+     */
+    public static LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        return (counter != null) ? counter : counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Clear every timer and counter. The registered names are kept.
+     */
+    public static void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Export every timer and counter as CSV, sorted by name. Latencies are in nanoseconds;
+     * counters fill the count column and leave the latency columns empty.
+     * @return The CSV text, with a header line.
+     */
+    public static String toCsv() {
+        StringBuilder csv = new StringBuilder("name,type,count,mean,p50,p99,p999,max\n");
+
+        for (LatencyHistogram t : new TreeMap<>(timers).values())
+            csv.append(t.name()).append(",timer,").append(t.count()).append(',')
+               .append(String.format(Locale.ROOT, "%.1f", t.mean())).append(',')
+               .append(t.percentile(0.50)).append(',')
+               .append(t.percentile(0.99)).append(',')
+               .append(t.percentile(0.999)).append(',')
+               .append(t.max()).append('\n');
+
+        for (Map.Entry<String, LongAdder> c : new TreeMap<>(counters).entrySet())
+            csv.append(c.getKey()).append(",counter,").append(c.getValue().sum()).append(",,,,,\n");
+
+        return csv.toString();
+    }
+
+    /**
+     * Export every timer and counter as a JSON object, sorted by name. Latencies are in nanoseconds.
+     * @return The JSON text.
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{\"timers\":{");
+        String separator = "";
+
+        for (LatencyHistogram t : new TreeMap<>(timers).values()) {
+            json.append(separator).append(quote(t.name()))
+                .append(":{\"count\":").append(t.count())
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", t.mean()))
+                .append(",\"p50\":").append(t.percentile(0.50))
+                .append(",\"p99\":").append(t.percentile(0.99))
+                .append(",\"p999\":").append(t.percentile(0.999))
+                .append(",\"max\":").append(t.max()).append('}');
+            separator = ",";
+        }
+
+        json.append("},\"counters\":{");
+        separator = "";
+
+        for (Map.Entry<String, LongAdder> c : new TreeMap<>(counters).entrySet()) {
+            json.append(separator).append(quote(c.getKey())).append(':').append(c.getValue().sum());
+            separator = ",";
+        }
+
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Internal method to quote a name as a JSON string.
+     * @param name The name to quote.
+     * @return The quoted and escaped name.
+     */
+    private static String quote(String name) {
+        return "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
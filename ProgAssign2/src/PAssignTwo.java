@@ -5,6 +5,11 @@
  *  Assignment #2                                   *
  ****************************************************/
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -15,11 +20,35 @@ import java.util.Scanner;
 public class PAssignTwo {
     /**
      * The main method.
-     * @param args Not used.
+     * @param args Optionally, a file of integers seperated by whitespace to construct the initial tree from,
+     *             - to stream the integers from standard input instead and print the shape of the
+     *             resulting tree (the menu needs standard input, so the program exits afterwards),
+     *             or --batch followed by a workload script to run without the menu (see TreeWorkload).
      */
     public static void main(String[] args) {
         int selection, nodes;
+        long startNanos;
         BinarySearchTree treeRoot = new BinarySearchTree();
+
+        if (args.length == 2 && args[0].equals("--batch")){
+            runBatch(Path.of(args[1]));
+            return;
+        }
+
+        if (args.length == 1 && args[0].equals("-")){
+            loadStandardInput();
+            return;
+        }
+
+        if (args.length > 0){
+            try {
+                treeRoot = loadTree(Path.of(args[0]));
+            }
+            catch (IOException ex){
+                System.out.println("Could not read " + args[0] + ": " + ex.getMessage());
+            }
+        }
+
         while (true){
             selection = showOptionsAndGetSelection();
             switch (selection){
@@ -28,6 +57,9 @@ public class PAssignTwo {
                     break;
                 case 8:
                     System.exit(0);
+                case 9:
+                    System.out.print(Metrics.toCsv());
+                    break;
                 case 2:
                 case 3:
                 case 4:
@@ -41,36 +73,75 @@ public class PAssignTwo {
                     switch (selection){
                         case 2:
                             System.out.print("Print in descending order: ");
+                            startNanos = System.nanoTime();
                             treeRoot.printTreeDescending();
+                            Metrics.timer("bst.printTreeDescending").recordSince(startNanos);
                             System.out.println();
                             break;
                         case 3:
+                            startNanos = System.nanoTime();
                             nodes = treeRoot.numLeaves();
+                            Metrics.timer("bst.numLeaves").recordSince(startNanos);
                             System.out.println("Number of leaf nodes: " + nodes);
                             break;
                         case 4:
+                            startNanos = System.nanoTime();
                             nodes = treeRoot.numOneChildNodes();
+                            Metrics.timer("bst.numOneChildNodes").recordSince(startNanos);
                             System.out.println("Number of nodes with exactly one child: " + nodes);
                             break;
                         case 5:
+                            startNanos = System.nanoTime();
                             nodes = treeRoot.numTwoChildrenNodes();
+                            Metrics.timer("bst.numTwoChildrenNodes").recordSince(startNanos);
                             System.out.println("Number of nodes with exactly two children: " + nodes);
                             break;
                         case 6:
                             System.out.print("Print in level-order: ");
+                            startNanos = System.nanoTime();
                             treeRoot.levelOrder();
+                            Metrics.timer("bst.levelOrder").recordSince(startNanos);
                             System.out.println();
                             break;
                         case 7:
                             int[] kValues = getK1AndK2();
                             System.out.print("Nodes between k1 and k2: ");
+                            startNanos = System.nanoTime();
                             treeRoot.printBetween(kValues[0], kValues[1]);
+                            Metrics.timer("bst.printBetween").recordSince(startNanos);
                             break;
                     }
             }
         }
     }
 
+    /**
+     * Runs a workload script and prints its throughput and latency report (added by Travis).
+     * @param script The workload script.
+     */
+    private static void runBatch(Path script){
+        TreeWorkload workload;
+
+        try {
+            workload = TreeWorkload.parse(script);
+        }
+        catch (IOException ex){
+            System.out.println("Could not read " + script + ": " + ex.getMessage());
+            return;
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println("Invalid workload: " + ex.getMessage());
+            return;
+        }
+
+        try {
+            workload.run(System.out);
+        }
+        catch (IOException ex){
+            System.out.println("Workload stopped, a save or open failed: " + ex);
+        }
+    }
+
     /**
      * Gets input string from user and converts into a BinarySearch tree.
      * @return User-specified BinarySearchTree.
@@ -99,23 +170,88 @@ public class PAssignTwo {
     public static BinarySearchTree convertIntStringToBST(String intString){
         if (intString == null) return null;
 
-        String[] tempStrArray;
-        Integer tempInt;
-        BinarySearchTree root = new BinarySearchTree();
+        IntTokenReader reader = new IntTokenReader(Channels.newChannel(
+                new ByteArrayInputStream(intString.getBytes(StandardCharsets.UTF_8))));
+        BinarySearchTree<Integer> root;
+
+        try {
+            root = insertAll(reader);
+        }
+        catch (IOException ex){
+            return null;    // Not thrown when reading from memory
+        }
+
+        // If any conversions fail, or there were no integers, return null.
+        if (reader.badTokens() > 0 || reader.goodTokens() == 0) return null;
 
-        // Remove leading and trailing whitespaces and reduce multi-spaces to a single space.
-        intString = intString.trim().replaceAll(" +", " ");
-        tempStrArray = intString.split(" ");
+        return root;
+    }
 
-        for (int i = 0; i < tempStrArray.length; i++){
-            tempInt = tryParseInt(tempStrArray[i]);
+    /**
+     * Streams the integers in a file into a BinarySearchTree without holding the file in memory (added by Travis).
+     * Tokens that are not integers are skipped and reported.
+     * @param file A file of integers seperated by whitespace.
+     * @return The BinarySearchTree of every integer in the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static BinarySearchTree<Integer> loadTree(Path file) throws IOException {
+        try (IntTokenReader reader = IntTokenReader.open(file)){
+            return loadTree(reader, file.toString());
+        }
+    }
 
-            // If any conversions fail, return null.
-            if (tempInt == null) return null;
+    /**
+     * Streams the integers on standard input into a BinarySearchTree through the same fixed buffer as a file
+     * load, so piped input of any length never sits in memory as text (added by Travis).
+     * Prints the load report, the shape of the tree and the load metrics.
+     */
+    private static void loadStandardInput(){
+        IntTokenReader reader = new IntTokenReader(Channels.newChannel(System.in));
 
-            root.insert(tempInt);
+        try {
+            BinarySearchTree<Integer> root = loadTree(reader, "standard input");
+            System.out.println("Tree: " + root.shapeStats());
+            System.out.print(Metrics.toCsv());
+        }
+        catch (IOException ex){
+            System.out.println("Could not read standard input: " + ex.getMessage());
         }
+    }
+
+    /**
+     * Inserts every valid integer of a reader into a new BinarySearchTree and reports the tokens read and skipped.
+     * @param reader The source of the integers.
+     * @param source The name of the source for the report.
+     * @return The BinarySearchTree.
+     * @throws IOException if reading fails.
+     */
+    private static BinarySearchTree<Integer> loadTree(IntTokenReader reader, String source) throws IOException {
+        BinarySearchTree<Integer> root = insertAll(reader);
+
+        System.out.println("Loaded " + reader.goodTokens() + " integers from " + source + ".");
+        if (reader.badTokens() > 0)
+            System.out.println("Skipped " + reader.badTokens() + " invalid tokens; the first starts at byte "
+                    + reader.firstBadOffset() + ".");
+        return root;
+    }
+
+    /**
+     * Inserts every valid integer of a reader into a new BinarySearchTree. The whole load is timed once,
+     * as bst.load, with the number of keys in the bst.load.keys counter; timing each insert would add
+     * two clock reads per key to the load it measures.
+     * @param reader The source of the integers.
+     * @return The BinarySearchTree.
+     * @throws IOException if reading fails.
+     */
+    private static BinarySearchTree<Integer> insertAll(IntTokenReader reader) throws IOException {
+        BinarySearchTree<Integer> root = new BinarySearchTree<>();
+        long startNanos = System.nanoTime();
+
+        while (reader.next())
+            root.insert(reader.value());
 
+        Metrics.timer("bst.load").recordSince(startNanos);
+        Metrics.counter("bst.load.keys").add(reader.goodTokens());
         return root;
     }
 
@@ -162,7 +298,7 @@ public class PAssignTwo {
 
         while (true) {
             System.out.println();
-            System.out.println("Enter choice [1-8] from menu below: ");
+            System.out.println("Enter choice [1-9] from menu below: ");
             System.out.println("1) Construct a tree ");
             System.out.println("2) Print tree in a descending order ");
             System.out.println("3) Print number of leaves in tree ");
@@ -170,7 +306,8 @@ public class PAssignTwo {
             System.out.println("5) Print the number of nodes in T that contain only two children ");
             System.out.println("6) Print the level order traversal of the tree ");
             System.out.println("7) Print all elements in the tree between k1 and k2 ");
-            System.out.println("8) Exit program \n");
+            System.out.println("8) Exit program ");
+            System.out.println("9) Print operation timing metrics \n");
             System.out.print("Choose an option: ");
 
             temp = scan.next();
@@ -187,6 +324,7 @@ public class PAssignTwo {
                     case 6:
                     case 7:
                     case 8:
+                    case 9:
                         return selection;
                 }
             }
@@ -0,0 +1,320 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable AVL tree. insert and remove never modify a tree; they return a new tree that
+ * copies only the O(log N) nodes on the path to the change and shares every other subtree with
+ * the old one. Every tree is therefore a snapshot that any number of threads may read without
+ * locks while newer versions are being built.
+ * <p>
+ * To share a changing tree between threads, publish each version through an AtomicReference:
+ * writers call {@code ref.updateAndGet(t -> t.insert(x))} and readers call {@code ref.get()} once
+ * and read that snapshot for as long as they like.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public final class PersistentBinarySearchTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
+    /**
+     * Construct the empty tree.
+     */
+    public PersistentBinarySearchTree() {
+        this(null);
+    }
+
+    private PersistentBinarySearchTree(Node<AnyType> root) {
+        this.root = root;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     * @return a tree that also holds x, or this tree if x was already present.
+     */
+    public PersistentBinarySearchTree<AnyType> insert(AnyType x) {
+        Node<AnyType> newRoot = insert(x, root);
+        return (newRoot == root) ? this : new PersistentBinarySearchTree<>(newRoot);
+    }
+
+    /**
+     * Remove from the tree.
+     * @param x the item to remove.
+     * @return a tree without x, or this tree if x was not present.
+     */
+    public PersistentBinarySearchTree<AnyType> remove(AnyType x) {
+        Node<AnyType> newRoot = remove(x, root);
+        return (newRoot == root) ? this : new PersistentBinarySearchTree<>(newRoot);
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item or null if empty.
+     */
+    public AnyType findMin() {
+        if (isEmpty())
+            return null;
+
+        Node<AnyType> t = root;
+        while (t.left != null)
+            t = t.left;
+        return t.element;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item or null if empty.
+     */
+    public AnyType findMax() {
+        if (isEmpty())
+            return null;
+
+        Node<AnyType> t = root;
+        while (t.right != null)
+            t = t.right;
+        return t.element;
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if found.
+     */
+    public boolean contains(AnyType x) {
+        Node<AnyType> t = root;
+
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
+
+            if (compareResult < 0)
+                t = t.left;
+            else if (compareResult > 0)
+                t = t.right;
+            else
+                return true;    // Match
+        }
+
+        return false;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Get the number of items in the tree in constant time.
+     * @return the number of items.
+     */
+    public int size() {
+        return nodeSize(root);
+    }
+
+    /**
+     * Get the height of the tree in constant time.
+     * @return the number of edges on the longest root to leaf path, or -1 if the tree is empty.
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Iterate over the whole tree in ascending order.
+     * @return an iterator over every item, smallest first.
+     */
+    public Iterator<AnyType> iterator() {
+        return new RangeIterator(null, null);
+    }
+
+    /**
+     * Iterate over the items between k1 and k2 in ascending order. The tree never changes, so the
+     * iterator needs no locking and is unaffected by later inserts and removes.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the items in [k1, k2], empty if k1 > k2.
+     */
+    public Iterator<AnyType> rangeIterator(AnyType k1, AnyType k2) {
+        if (k1 == null || k2 == null)
+            throw new IllegalArgumentException("Range bounds must not be null.");
+        return new RangeIterator(k1, k2);
+    }
+
+    /**
+     * Internal method to insert into a subtree.
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the root of the new subtree, or t itself if x was already present.
+     */
+    private Node<AnyType> insert(AnyType x, Node<AnyType> t) {
+        if (t == null)
+            return new Node<>(x, null, null);
+
+        int compareResult = x.compareTo(t.element);
+
+        if (compareResult < 0) {
+            Node<AnyType> left = insert(x, t.left);
+            return (left == t.left) ? t : balance(t.element, left, t.right);
+        } else if (compareResult > 0) {
+            Node<AnyType> right = insert(x, t.right);
+            return (right == t.right) ? t : balance(t.element, t.left, right);
+        } else
+            return t;   // Duplicate; share the whole subtree
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the root of the new subtree, or t itself if x was not present.
+     */
+    private Node<AnyType> remove(AnyType x, Node<AnyType> t) {
+        if (t == null)
+            return t;   // Item not found; do nothing
+
+        int compareResult = x.compareTo(t.element);
+
+        if (compareResult < 0) {
+            Node<AnyType> left = remove(x, t.left);
+            return (left == t.left) ? t : balance(t.element, left, t.right);
+        } else if (compareResult > 0) {
+            Node<AnyType> right = remove(x, t.right);
+            return (right == t.right) ? t : balance(t.element, t.left, right);
+        } else if (t.left != null && t.right != null) { // Two children
+            // Build a new node around the successor instead of overwriting t.element.
+            Node<AnyType> successor = t.right;
+            while (successor.left != null)
+                successor = successor.left;
+            return balance(successor.element, t.left, removeMin(t.right));
+        } else
+            return (t.left != null) ? t.left : t.right;
+    }
+
+    /**
+     * Internal method to remove the smallest item of a non-empty subtree.
+     * @param t the node that roots the subtree.
+     * @return the root of the new subtree.
+     */
+    private Node<AnyType> removeMin(Node<AnyType> t) {
+        if (t.left == null)
+            return t.right;
+        return balance(t.element, removeMin(t.left), t.right);
+    }
+
+    /**
+     * Internal method to build a node from two AVL subtrees whose heights differ by at most two,
+     * rotating the new nodes as needed to restore the AVL property. The children are shared, never copied.
+     * @param x the item of the new node.
+     * @param left the left subtree.
+     * @param right the right subtree.
+     * @return the root of the balanced subtree.
+     */
+    private static <AnyType> Node<AnyType> balance(AnyType x, Node<AnyType> left, Node<AnyType> right) {
+        if (height(left) - height(right) > ALLOWED_IMBALANCE) {
+            if (height(left.left) >= height(left.right))     // Single rotation with left child
+                return new Node<>(left.element, left.left, new Node<>(x, left.right, right));
+
+            Node<AnyType> middle = left.right;                // Double rotation
+            return new Node<>(middle.element, new Node<>(left.element, left.left, middle.left),
+                    new Node<>(x, middle.right, right));
+        }
+
+        if (height(right) - height(left) > ALLOWED_IMBALANCE) {
+            if (height(right.right) >= height(right.left))   // Single rotation with right child
+                return new Node<>(right.element, new Node<>(x, left, right.left), right.right);
+
+            Node<AnyType> middle = right.left;                // Double rotation
+            return new Node<>(middle.element, new Node<>(x, left, middle.left),
+                    new Node<>(right.element, middle.right, right.right));
+        }
+
+        return new Node<>(x, left, right);
+    }
+
+    /**
+     * Return the height of node t, or -1, if null.
+     * @param t the node.
+     * @return the height of t.
+     */
+    private static int height(Node<?> t) {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Return the number of nodes in the subtree rooted at t, or 0, if null.
+     * @param t the node.
+     * @return the size of t.
+     */
+    private static int nodeSize(Node<?> t) {
+        return t == null ? 0 : t.size;
+    }
+
+    // Lazy in-order walk over [lo, hi]; a null bound is unbounded
+    private class RangeIterator implements Iterator<AnyType> {
+        private final AnyType hi;
+        private final Deque<Node<AnyType>> stack = new ArrayDeque<>();  // Path of nodes still to visit
+
+        RangeIterator(AnyType lo, AnyType hi) {
+            this.hi = hi;
+
+            // Push the path to the first item in range, skipping subtrees entirely below it.
+            Node<AnyType> t = root;
+            while (t != null) {
+                if (lo != null && t.element.compareTo(lo) < 0)
+                    t = t.right;
+                else {
+                    stack.push(t);
+                    t = t.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stack.isEmpty())
+                return false;
+
+            if (hi != null && stack.peek().element.compareTo(hi) > 0) {
+                stack.clear();  // Past the upper bound; nothing left in range
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public AnyType next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Node<AnyType> n = stack.pop();
+            for (Node<AnyType> t = n.right; t != null; t = t.left)
+                stack.push(t);
+            return n.element;
+        }
+    }
+
+    // Immutable node; every field is final, so a published node is safely visible to any thread
+    private static final class Node<AnyType> {
+        Node(AnyType theElement, Node<AnyType> lt, Node<AnyType> rt) {
+            element = theElement;
+            left = lt;
+            right = rt;
+            height = Math.max(height(lt), height(rt)) + 1;
+            size = 1 + nodeSize(lt) + nodeSize(rt);
+        }
+
+        final AnyType element;      // The data in the node
+        final Node<AnyType> left;   // Left child
+        final Node<AnyType> right;  // Right child
+        final int height;           // Height of the subtree rooted here
+        final int size;             // Number of nodes in the subtree rooted here
+    }
+
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    /**
+     * The tree root, null for the empty tree.
+     */
+    private final Node<AnyType> root;
+}
@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A read-only set of int keys served straight from a memory-mapped file.
+ * save writes the keys of a tree in ascending order after a 16 byte header; open maps the file
+ * without reading it, so opening takes the same few milliseconds for any number of keys and
+ * each query only touches the pages its binary search lands on. Pages are loaded on first use
+ * by the operating system and stay in its page cache between runs.
+ * <p>
+ * File format, all little-endian: the int magic number MAGIC, the int VERSION, the long key
+ * count, then the keys as ints in ascending order.
+ * The mapped view is never modified, so it may be read from any number of threads.
+ */
+public final class SortedKeyFile {
+    /**
+     * First four bytes of every key file, "BSTK" in ASCII.
+     */
+    public static final int MAGIC = 0x4B545342;
+
+    /**
+     * Format version written by save.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * A MappedByteBuffer is limited to 2GB, so the keys are mapped as 1GB segments.
+     */
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long SEGMENT_INTS = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (int) SEGMENT_INTS - 1;
+
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final IntBuffer[] segments;
+    private final long size;
+
+    private SortedKeyFile(IntBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Write the keys of a tree to a file, replacing any existing file.
+     * @param tree the tree to save.
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(BinarySearchTree<Integer> tree, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = newWriteBuffer(tree.size());
+
+            for (int x : tree) {
+                if (!buffer.hasRemaining())
+                    drain(channel, buffer);
+                buffer.putInt(x);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Write keys that are already in ascending order to a file, replacing any existing file.
+     * @param sorted the keys in ascending order.
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if the keys are not in ascending order.
+     */
+    public static void save(int[] sorted, Path file) throws IOException {
+        for (int i = 1; i < sorted.length; i++)
+            if (sorted[i - 1] > sorted[i])
+                throw new IllegalArgumentException("Keys must be in ascending order; index " + i + " is out of order.");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = newWriteBuffer(sorted.length);
+
+            for (int i = 0; i < sorted.length; ) {
+                int n = Math.min(buffer.remaining() / Integer.BYTES, sorted.length - i);
+                buffer.asIntBuffer().put(sorted, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+                drain(channel, buffer);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Map a file written by save. No key is read until it is queried.
+     * @param file the file to open.
+     * @return the read-only view of the keys.
+     * @throws IOException if the file cannot be read or is not a key file of this version.
+     */
+    public static SortedKeyFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException(file + " is too short to be a key file.");
+            header.flip();
+
+            if (header.getInt() != MAGIC)
+                throw new IOException(file + " is not a key file.");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException(file + " has unsupported version " + version + ".");
+            long size = header.getLong();
+            if (size < 0 || channel.size() != HEADER_BYTES + size * Integer.BYTES)
+                throw new IOException(file + " does not hold the " + size + " keys its header claims.");
+
+            // The mappings stay valid after the channel is closed.
+            IntBuffer[] segments = new IntBuffer[(int) ((size + SEGMENT_INTS - 1) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long ints = Math.min(SEGMENT_INTS, size - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * Integer.BYTES,
+                        ints * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+
+            return new SortedKeyFile(segments, size);
+        }
+    }
+
+    /**
+     * Find a key in the file.
+     * @param x the key to search for.
+     * @return true if found.
+     */
+    public boolean contains(int x) {
+        long i = lowerBound(x);
+        return i < size && get(i) == x;
+    }
+
+    /**
+     * Find the smallest key in the file.
+     * @return the smallest key.
+     * @throws NoSuchElementException if the file holds no keys.
+     */
+    public int findMin() {
+        if (size == 0)
+            throw new NoSuchElementException("The key file is empty.");
+        return get(0);
+    }
+
+    /**
+     * Find the largest key in the file.
+     * @return the largest key.
+     * @throws NoSuchElementException if the file holds no keys.
+     */
+    public int findMax() {
+        if (size == 0)
+            throw new NoSuchElementException("The key file is empty.");
+        return get(size - 1);
+    }
+
+    /**
+     * Count the keys between k1 and k2 with two binary searches.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return the number of keys in [k1, k2], 0 if k1 > k2.
+     */
+    public long countBetween(int k1, int k2) {
+        if (k1 > k2)
+            return 0;
+        return (k2 == Integer.MAX_VALUE ? size : lowerBound(k2 + 1)) - lowerBound(k1);
+    }
+
+    /**
+     * Iterate over the keys between k1 and k2 in ascending order, reading the file sequentially.
+     * @param k1 Lower bound (inclusive).
+     * @param k2 Upper bound (inclusive).
+     * @return an iterator over the keys in [k1, k2], empty if k1 > k2.
+     */
+    public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+        long first = lowerBound(k1);
+
+        return new PrimitiveIterator.OfInt() {
+            private long i = first;
+
+            @Override
+            public boolean hasNext() {
+                return i < size && get(i) <= k2;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return get(i++);
+            }
+        };
+    }
+
+    /**
+     * Rebuild a mutable tree from the keys with BinarySearchTree.bulkLoad, in O(N) with no sorting.
+     * @param balanced true if later inserts and removes should keep the tree AVL-balanced.
+     * @return a new tree holding every key.
+     * @throws IllegalStateException if the file holds too many keys for one array.
+     */
+    public BinarySearchTree<Integer> toTree(boolean balanced) {
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException(size + " keys do not fit in one tree.");
+
+        int[] keys = new int[(int) size];
+        for (int s = 0, at = 0; s < segments.length; s++) {
+            IntBuffer segment = segments[s].duplicate();    // Bulk reads move the position; leave the shared view alone
+            int n = segment.remaining();
+            segment.get(keys, at, n);
+            at += n;
+        }
+
+        return BinarySearchTree.bulkLoad(keys, balanced);
+    }
+
+    /**
+     * Get the number of keys in the file.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Internal method to read the key at an index.
+     * @param i an index between 0 and size - 1.
+     * @return the key.
+     */
+    private int get(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].get((int) i & SEGMENT_MASK);
+    }
+
+    /**
+     * Internal method to find the first key that is not less than x.
+     * @param x the key to search for.
+     * @return the index of the first key >= x, or size if there is none.
+     */
+    private long lowerBound(int x) {
+        long low = 0, high = size;
+
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (get(mid) < x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    /**
+     * Internal method to create the write buffer with the header already in it.
+     * @param size the number of keys that will follow.
+     * @return the buffer, positioned after the header.
+     */
+    private static ByteBuffer newWriteBuffer(long size) {
+        return ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putLong(size);
+    }
+
+    /**
+     * Internal method to write out everything in the buffer and make it empty again.
+     * @param channel the channel to write to.
+     * @param buffer the buffer, positioned after its last byte.
+     * @throws IOException if the write fails.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,300 @@
+/****************************************************
+ *  Program Title: Tree Workload                    *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Replays a script of tree operations without console interaction, for measuring sustained
+ * throughput. The whole script is parsed before anything runs, random keys and load files
+ * included, so the timed loop does no parsing, no console I/O and no file I/O other than save and
+ * open. Every operation is recorded in a Metrics timer, and run prints the throughput and the
+ * latency table at the end.
+ * <p>
+ * One operation per line; blank lines and text after # are ignored. Wherever a list of keys is
+ * expected, "random count lo hi" stands for count keys drawn uniformly from [lo, hi], and any other
+ * DataGenerator distribution name can take the place of random, as in "insert sorted 1000 0 999".
+ * <pre>
+ * seed 42                          reseed the generator used by random and the distributions
+ * tree balanced                    start over with an empty AVL-balanced tree ("tree plain" for unbalanced)
+ * load keys.txt                    insert every integer of a file, as PAssignTwo does with its argument
+ * insert 5 3 8                     one timed operation per key
+ * insert random 100000 -1000000 1000000
+ * insert zipf 100000 -1000000 1000000
+ * remove random 1000 -1000000 1000000
+ * contains 3 4
+ * range -100 100                   visit every key in [k1, k2]
+ * save keys.bin                    write the keys to a SortedKeyFile (timed as bst.save, not counted)
+ * open keys.bin balanced           replace the tree with one rebuilt from a SortedKeyFile (bst.open)
+ * stats                            print the shape of the tree and the metrics so far (not timed)
+ * reset                            clear the metrics
+ * </pre>
+ * The script starts with an empty unbalanced tree, like the interactive program. Files named by
+ * load, save and open lines are relative to the script.
+ */
+public final class TreeWorkload {
+    /**
+     * Seed used until a seed line changes it.
+     */
+    public static final long DEFAULT_SEED = 3320;
+
+    private static final int TREE = 0, INSERT = 1, REMOVE = 2, CONTAINS = 3, RANGE = 4, STATS = 5, RESET = 6,
+            SAVE = 7, OPEN = 8;
+
+    private final List<Step> steps;
+
+    private TreeWorkload(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Parse a workload script. Files named by load lines are read now, relative to the script.
+     * @param script The script file.
+     * @return The parsed workload, ready to run.
+     * @throws IOException if the script or a load file cannot be read.
+     * @throws IllegalArgumentException if a line is not a valid operation; the message names the line.
+     */
+    public static TreeWorkload parse(Path script) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(DEFAULT_SEED);
+        int lineNumber = 0;
+
+        for (String line : Files.readAllLines(script)) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String[] tokens = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (tokens[0].isEmpty())
+                continue;
+
+            try {
+                switch (tokens[0]) {
+                    case "seed":
+                        expectCount(tokens, 2);
+                        random = new SplittableRandom(Long.parseLong(tokens[1]));
+                        break;
+                    case "tree":
+                        expectCount(tokens, 2);
+                        if (!tokens[1].equals("balanced") && !tokens[1].equals("plain"))
+                            throw new IllegalArgumentException("tree expects balanced or plain");
+                        steps.add(new Step(TREE, new int[] {tokens[1].equals("balanced") ? 1 : 0}));
+                        break;
+                    case "save":
+                        expectCount(tokens, 2);
+                        steps.add(new Step(SAVE, new int[0], script.resolveSibling(tokens[1])));
+                        break;
+                    case "open":
+                        expectCount(tokens, 3);
+                        if (!tokens[2].equals("balanced") && !tokens[2].equals("plain"))
+                            throw new IllegalArgumentException("open expects a file and balanced or plain");
+                        steps.add(new Step(OPEN, new int[] {tokens[2].equals("balanced") ? 1 : 0},
+                                script.resolveSibling(tokens[1])));
+                        break;
+                    case "load":
+                        expectCount(tokens, 2);
+                        steps.add(new Step(INSERT, load(script.resolveSibling(tokens[1]))));
+                        break;
+                    case "insert":
+                        steps.add(new Step(INSERT, values(tokens, random)));
+                        break;
+                    case "remove":
+                        steps.add(new Step(REMOVE, values(tokens, random)));
+                        break;
+                    case "contains":
+                        steps.add(new Step(CONTAINS, values(tokens, random)));
+                        break;
+                    case "range":
+                        expectCount(tokens, 3);
+                        steps.add(new Step(RANGE, new int[] {Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])}));
+                        break;
+                    case "stats":
+                        steps.add(new Step(STATS, new int[0]));
+                        break;
+                    case "reset":
+                        steps.add(new Step(RESET, new int[0]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown operation " + tokens[0]);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(script + " line " + lineNumber + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        return new TreeWorkload(steps);
+    }
+
+    /**
+     * Run every operation in order, then print the throughput and the latency of each operation type.
+     * @param out Where the stats operations and the final report are printed.
+     * @throws IOException if a save or open line fails.
+     */
+    public void run(PrintStream out) throws IOException {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        LatencyHistogram insertTimer = Metrics.timer("bst.insert");
+        LatencyHistogram removeTimer = Metrics.timer("bst.remove");
+        LatencyHistogram containsTimer = Metrics.timer("bst.contains");
+        LatencyHistogram rangeTimer = Metrics.timer("bst.range");
+        LatencyHistogram saveTimer = Metrics.timer("bst.save");
+        LatencyHistogram openTimer = Metrics.timer("bst.open");
+        long operations = 0;
+        long busyNanos = 0;
+
+        for (Step step : steps) {
+            long stepStart = System.nanoTime();
+
+            switch (step.code) {
+                case TREE:
+                    tree = new BinarySearchTree<>(step.values[0] == 1);
+                    continue;
+                case INSERT:
+                    for (int x : step.values) {
+                        long start = System.nanoTime();
+                        tree.insert(x);
+                        insertTimer.recordSince(start);
+                    }
+                    break;
+                case REMOVE:
+                    for (int x : step.values) {
+                        long start = System.nanoTime();
+                        tree.remove(x);
+                        removeTimer.recordSince(start);
+                    }
+                    break;
+                case CONTAINS:
+                    long hits = 0;
+                    for (int x : step.values) {
+                        long start = System.nanoTime();
+                        boolean hit = tree.contains(x);
+                        containsTimer.recordSince(start);
+                        if (hit)
+                            hits++;
+                    }
+                    Metrics.counter("bst.contains.hits").add(hits);
+                    Metrics.counter("bst.contains.misses").add(step.values.length - hits);
+                    break;
+                case RANGE:
+                    long start = System.nanoTime();
+                    long visited = 0;
+                    for (Iterator<Integer> it = tree.rangeIterator(step.values[0], step.values[1]); it.hasNext(); it.next())
+                        visited++;
+                    rangeTimer.recordSince(start);
+                    Metrics.counter("bst.range.visited").add(visited);
+                    operations++;
+                    busyNanos += System.nanoTime() - stepStart;
+                    continue;
+                case SAVE:
+                    SortedKeyFile.save(tree, step.file);
+                    saveTimer.recordSince(stepStart);
+                    continue;
+                case OPEN:
+                    tree = SortedKeyFile.open(step.file).toTree(step.values[0] == 1);
+                    openTimer.recordSince(stepStart);
+                    continue;
+                case STATS:
+                    out.println("Tree: " + tree.shapeStats());
+                    out.print(Metrics.toCsv());
+                    continue;
+                case RESET:
+                    Metrics.reset();
+                    continue;
+            }
+
+            operations += step.values.length;
+            busyNanos += System.nanoTime() - stepStart;
+        }
+
+        out.printf(Locale.ROOT, "Ran %d operations in %.3f s (%.1f ops/sec).%n",
+                operations, busyNanos / 1e9, operations / Math.max(busyNanos / 1e9, 1e-9));
+        out.print(Metrics.toCsv());
+    }
+
+    /**
+     * Internal method to read every valid integer of a file with IntTokenReader.
+     * @param file The file to read.
+     * @return The integers, in file order.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file holds a token that is not an integer.
+     */
+    private static int[] load(Path file) throws IOException {
+        int[] values = new int[1024];
+        int count = 0;
+
+        try (IntTokenReader reader = IntTokenReader.open(file)) {
+            while (reader.next()) {
+                if (count == values.length)
+                    values = Arrays.copyOf(values, count * 2);
+                values[count++] = reader.value();
+            }
+            if (reader.badTokens() > 0)
+                throw new IllegalArgumentException(file + " has " + reader.badTokens()
+                        + " invalid tokens; the first starts at byte " + reader.firstBadOffset());
+        }
+
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Internal method to read the key list of a line, or a "random count lo hi" or distribution list.
+     * @param tokens The tokens of the line; the keys start at tokens[1].
+     * @param random The source of the seeds for random and distribution lists.
+     * @return The keys.
+     */
+    private static int[] values(String[] tokens, SplittableRandom random) {
+        if (tokens.length < 2)
+            throw new IllegalArgumentException(tokens[0] + " expects at least one key");
+
+        String distribution = tokens[1].equals("random") ? "uniform" : tokens[1];
+        if (Arrays.asList(DataGenerator.DISTRIBUTIONS).contains(distribution)) {
+            expectCount(tokens, 5);
+            int count = Integer.parseInt(tokens[2]);
+            int lo = Integer.parseInt(tokens[3]);
+            int hi = Integer.parseInt(tokens[4]);
+            if (count < 0 || lo > hi)
+                throw new IllegalArgumentException(tokens[1] + " needs a count >= 0 and lo <= hi");
+            return new DataGenerator(random.nextLong(), lo, hi).generate(distribution, count);
+        }
+
+        int[] values = new int[tokens.length - 1];
+        for (int i = 0; i < values.length; i++)
+            values[i] = Integer.parseInt(tokens[i + 1]);
+        return values;
+    }
+
+    /**
+     * Internal method to check the number of tokens on a line.
+     * @param tokens The tokens of the line.
+     * @param count The expected number of tokens.
+     */
+    private static void expectCount(String[] tokens, int count) {
+        if (tokens.length != count)
+            throw new IllegalArgumentException(tokens[0] + " expects " + (count - 1) + " arguments");
+    }
+
+    // One parsed line of the script
+    private static final class Step {
+        Step(int code, int[] values) {
+            this(code, values, null);
+        }
+
+        Step(int code, int[] values, Path file) {
+            this.code = code;
+            this.values = values;
+            this.file = file;
+        }
+
+        final int code;         // TREE, INSERT, REMOVE, CONTAINS, RANGE, STATS, RESET, SAVE or OPEN
+        final int[] values;     // The tree kind, the keys, or the range bounds
+        final Path file;        // The key file of a save or open
+    }
+}
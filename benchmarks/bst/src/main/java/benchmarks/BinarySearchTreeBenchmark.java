@@ -0,0 +1,210 @@
+/****************************************************
+ *  Program Title: Binary Search Tree Benchmark     *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for the BinarySearchTree operations under different key insertion orders.
+ * "sorted" and "zigzag" (alternating smallest and largest remaining key) both build a
+ * degenerate tree of height n - 1 unless the tree is balanced; "random" builds a tree of expected
+ * height O(log n).
+ * The assignment classes are called through Handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinarySearchTreeBenchmark {
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"random", "sorted", "reversed", "zigzag"})
+    public String order;
+
+    @Param({"false", "true"})
+    public boolean balanced;
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("BinarySearchTree", boolean.class);
+    private static final MethodHandle INSERT = Handles.virtualMethod("BinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle REMOVE = Handles.virtualMethod("BinarySearchTree", "remove",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONTAINS = Handles.virtualMethod("BinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle RANGE_ITERATOR = Handles.virtualMethod("BinarySearchTree", "rangeIterator",
+            MethodType.methodType(Iterator.class, Comparable.class, Comparable.class));
+
+    private static final MethodHandle RANK = Handles.virtualMethod("BinarySearchTree", "rank",
+            MethodType.methodType(int.class, Comparable.class));
+    private static final MethodHandle SELECT = Handles.virtualMethod("BinarySearchTree", "select",
+            MethodType.methodType(Comparable.class, int.class));
+    private static final MethodHandle COUNT_BETWEEN = Handles.virtualMethod("BinarySearchTree", "countBetween",
+            MethodType.methodType(int.class, Comparable.class, Comparable.class));
+
+    private static final MethodHandle BULK_LOAD = Handles.staticMethod("BinarySearchTree", "bulkLoad",
+            MethodType.methodType(Object.class, int[].class, boolean.class));
+
+    private Integer[] keys;         // Keys in insertion order, 0 to size - 1 each exactly once
+    private int[] intKeys;          // The same keys as primitives, for bulkLoad
+    private Integer[] probes;       // Keys in random order for contains and remove
+    private Object tree;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3320);
+        keys = orderedKeys(order, size, random);
+        intKeys = new int[size];
+        for (int i = 0; i < size; i++)
+            intKeys[i] = keys[i];
+        probes = orderedKeys("random", size, random);
+        tree = build(keys, balanced);
+    }
+
+    /**
+     * Builds a whole tree from the keys in insertion order.
+     */
+    @Benchmark
+    public Object insert() throws Throwable {
+        return build(keys, balanced);
+    }
+
+    /**
+     * Builds a whole tree from the same keys with bulkLoad; compare with insert.
+     */
+    @Benchmark
+    public Object bulkLoad() throws Throwable {
+        return (Object) BULK_LOAD.invokeExact(intKeys, balanced);
+    }
+
+    /**
+     * Looks up one key, cycling through the keys in random order.
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        return (boolean) CONTAINS.invokeExact(tree, (Comparable) nextProbe());
+    }
+
+    /**
+     * Removes one key and inserts it again, so the tree keeps the same key set between calls.
+     */
+    @Benchmark
+    public Object removeAndReinsert() throws Throwable {
+        Comparable key = nextProbe();
+        REMOVE.invokeExact(tree, key);
+        INSERT.invokeExact(tree, key);
+        return tree;
+    }
+
+    /**
+     * Scans the middle tenth of the key range.
+     * @return the number of keys in range.
+     */
+    @Benchmark
+    public int rangeScan() throws Throwable {
+        Iterator<?> range = (Iterator<?>) RANGE_ITERATOR.invokeExact(tree, (Comparable) (size * 9 / 20), (Comparable) (size * 11 / 20));
+        int count = 0;
+
+        for (; range.hasNext(); range.next())
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Ranks one key through the subtree sizes. Compare with contains for the per-level cost of the
+     * size lookups, and the insert benchmark with earlier builds for the cost of maintaining them.
+     */
+    @Benchmark
+    public int rank() throws Throwable {
+        return (int) RANK.invokeExact(tree, (Comparable) nextProbe());
+    }
+
+    /**
+     * Selects the key at one index, cycling through the indexes in random order.
+     */
+    @Benchmark
+    public Comparable select() throws Throwable {
+        return (Comparable) SELECT.invokeExact(tree, nextProbe().intValue());
+    }
+
+    /**
+     * Counts the middle tenth of the key range without visiting the keys; compare with rangeScan.
+     */
+    @Benchmark
+    public int countBetween() throws Throwable {
+        return (int) COUNT_BETWEEN.invokeExact(tree, (Comparable) (size * 9 / 20), (Comparable) (size * 11 / 20));
+    }
+
+    private Integer nextProbe() {
+        if (next == probes.length)
+            next = 0;
+        return probes[next++];
+    }
+
+    private static Object build(Integer[] keys, boolean balanced) throws Throwable {
+        Object t = (Object) NEW_TREE.invokeExact(balanced);
+        for (Integer key : keys)
+            INSERT.invokeExact(t, (Comparable) key);
+        return t;
+    }
+
+    /**
+     * Produces the keys 0 to size - 1 in the named insertion order.
+     */
+    static Integer[] orderedKeys(String order, int size, SplittableRandom random) {
+        Integer[] keys = new Integer[size];
+
+        for (int i = 0; i < size; i++)
+            keys[i] = i;
+
+        switch (order) {
+            case "sorted":
+                break;
+            case "reversed":
+                for (int i = 0; i < size; i++)
+                    keys[i] = size - 1 - i;
+                break;
+            case "random":
+                for (int i = size - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    Integer temp = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = temp;
+                }
+                break;
+            case "zigzag":
+                for (int i = 0, lo = 0, hi = size - 1; i < size; i++)
+                    keys[i] = (i % 2 == 0) ? lo++ : hi--;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown key order " + order);
+        }
+
+        return keys;
+    }
+}
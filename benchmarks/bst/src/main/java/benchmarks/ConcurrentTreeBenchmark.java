@@ -0,0 +1,226 @@
+/****************************************************
+ *  Program Title: Concurrent Tree Benchmark        *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for a read-mostly tree shared by several threads: three readers run contains or a
+ * short range scan while one writer removes and reinserts random keys.
+ * "concurrent" is ConcurrentBinarySearchTree, whose writers take a lock and publish path-copied
+ * versions through a volatile field, "persistent" publishes PersistentBinarySearchTree versions
+ * through an AtomicReference with compare-and-set writers, "synchronized" is a balanced
+ * BinarySearchTree behind one monitor, and "skiplist" is java.util.concurrent.ConcurrentSkipListSet
+ * as a reference.
+ * Compare the reader scores across impl; the writer score shows what the readers cost the writer.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentTreeBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"concurrent", "persistent", "synchronized", "skiplist"})
+    public String impl;
+
+    private static final int RANGE_WIDTH = 16;
+
+    private static final MethodHandle NEW_CONCURRENT = Handles.constructor("ConcurrentBinarySearchTree");
+    private static final MethodHandle CONCURRENT_INSERT = Handles.virtualMethod("ConcurrentBinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_REMOVE = Handles.virtualMethod("ConcurrentBinarySearchTree", "remove",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_CONTAINS = Handles.virtualMethod("ConcurrentBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_RANGE = Handles.virtualMethod("ConcurrentBinarySearchTree", "range",
+            MethodType.methodType(List.class, Comparable.class, Comparable.class));
+
+    private static final MethodHandle NEW_PERSISTENT = Handles.constructor("PersistentBinarySearchTree");
+    private static final MethodHandle PERSISTENT_INSERT = Handles.virtualMethod("PersistentBinarySearchTree", "insert",
+            MethodType.methodType(Object.class, Comparable.class));
+    private static final MethodHandle PERSISTENT_REMOVE = Handles.virtualMethod("PersistentBinarySearchTree", "remove",
+            MethodType.methodType(Object.class, Comparable.class));
+    private static final MethodHandle PERSISTENT_CONTAINS = Handles.virtualMethod("PersistentBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle PERSISTENT_RANGE_ITERATOR = Handles.virtualMethod("PersistentBinarySearchTree", "rangeIterator",
+            MethodType.methodType(Iterator.class, Comparable.class, Comparable.class));
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("BinarySearchTree", boolean.class);
+    private static final MethodHandle INSERT = Handles.virtualMethod("BinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle REMOVE = Handles.virtualMethod("BinarySearchTree", "remove",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONTAINS = Handles.virtualMethod("BinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle RANGE_ITERATOR = Handles.virtualMethod("BinarySearchTree", "rangeIterator",
+            MethodType.methodType(Iterator.class, Comparable.class, Comparable.class));
+
+    private Object tree;                        // ConcurrentBinarySearchTree or BinarySearchTree
+    private AtomicReference<Object> snapshot;   // Latest PersistentBinarySearchTree
+    private ConcurrentSkipListSet<Integer> skipList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Integer[] keys = BinarySearchTreeBenchmark.orderedKeys("random", size, new SplittableRandom(3320));
+
+        switch (impl) {
+            case "concurrent":
+                tree = (Object) NEW_CONCURRENT.invokeExact();
+                for (Integer key : keys)
+                    CONCURRENT_INSERT.invokeExact(tree, (Comparable) key);
+                break;
+            case "persistent":
+                Object version = (Object) NEW_PERSISTENT.invokeExact();
+                for (Integer key : keys)
+                    version = (Object) PERSISTENT_INSERT.invokeExact(version, (Comparable) key);
+                snapshot = new AtomicReference<>(version);
+                break;
+            case "synchronized":
+                tree = (Object) NEW_TREE.invokeExact(true);
+                for (Integer key : keys)
+                    INSERT.invokeExact(tree, (Comparable) key);
+                break;
+            case "skiplist":
+                skipList = new ConcurrentSkipListSet<>();
+                for (Integer key : keys)
+                    skipList.add(key);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+    }
+
+    /**
+     * Looks up one random key.
+     */
+    @Benchmark
+    @Group("contains")
+    @GroupThreads(3)
+    public boolean containsReader() throws Throwable {
+        Comparable key = ThreadLocalRandom.current().nextInt(size);
+
+        switch (impl) {
+            case "concurrent":
+                return (boolean) CONCURRENT_CONTAINS.invokeExact(tree, key);
+            case "persistent":
+                return (boolean) PERSISTENT_CONTAINS.invokeExact(snapshot.get(), key);
+            case "synchronized":
+                synchronized (tree) {
+                    return (boolean) CONTAINS.invokeExact(tree, key);
+                }
+            default:
+                return skipList.contains(key);
+        }
+    }
+
+    @Benchmark
+    @Group("contains")
+    @GroupThreads(1)
+    public Object containsWriter() throws Throwable {
+        return write();
+    }
+
+    /**
+     * Counts the keys in a random window of RANGE_WIDTH keys.
+     */
+    @Benchmark
+    @Group("range")
+    @GroupThreads(3)
+    public int rangeReader() throws Throwable {
+        int low = ThreadLocalRandom.current().nextInt(size);
+        Comparable k1 = low, k2 = low + RANGE_WIDTH - 1;
+
+        switch (impl) {
+            case "concurrent":
+                return ((List<?>) CONCURRENT_RANGE.invokeExact(tree, k1, k2)).size();
+            case "persistent":
+                return count((Iterator<?>) PERSISTENT_RANGE_ITERATOR.invokeExact(snapshot.get(), k1, k2));
+            case "synchronized":
+                synchronized (tree) {
+                    return count((Iterator<?>) RANGE_ITERATOR.invokeExact(tree, k1, k2));
+                }
+            default:
+                return skipList.subSet((Integer) k1, true, (Integer) k2, true).size();
+        }
+    }
+
+    @Benchmark
+    @Group("range")
+    @GroupThreads(1)
+    public Object rangeWriter() throws Throwable {
+        return write();
+    }
+
+    /**
+     * Removes one random key and inserts it again, so the key set is the same between calls.
+     */
+    private Object write() throws Throwable {
+        Comparable key = ThreadLocalRandom.current().nextInt(size);
+
+        switch (impl) {
+            case "concurrent":
+                CONCURRENT_REMOVE.invokeExact(tree, key);
+                CONCURRENT_INSERT.invokeExact(tree, key);
+                return tree;
+            case "persistent":
+                // Build the next version off the current one and publish it only if no other writer won.
+                Object current, next;
+                do {
+                    current = snapshot.get();
+                    next = (Object) PERSISTENT_REMOVE.invokeExact(current, key);
+                    next = (Object) PERSISTENT_INSERT.invokeExact(next, key);
+                } while (!snapshot.compareAndSet(current, next));
+                return next;
+            case "synchronized":
+                synchronized (tree) {
+                    REMOVE.invokeExact(tree, key);
+                    INSERT.invokeExact(tree, key);
+                }
+                return tree;
+            default:
+                skipList.remove(key);
+                skipList.add((Integer) key);
+                return skipList;
+        }
+    }
+
+    private static int count(Iterator<?> range) {
+        int count = 0;
+
+        for (; range.hasNext(); range.next())
+            count++;
+
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+/****************************************************
+ *  Program Title: Eytzinger Index Benchmark        *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for point lookups in a static set of int keys. "eytzinger" is EytzingerIndex,
+ * "sorted" is a binary search of the sorted array, "mapped" is a SortedKeyFile saved to a temporary
+ * file and reopened, and "tree" is an IntBinarySearchTree built in random order. The probes are
+ * random, half of them hits, so every level of every search misses cache once the keys outgrow it.
+ * The mapped file is in the page cache after saving, so "mapped" shows the cost of reading through
+ * a mapping rather than of reading the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EytzingerIndexBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"eytzinger", "sorted", "mapped", "tree"})
+    public String impl;
+
+    private static final int PROBES = 1 << 16;
+
+    private static final MethodHandle NEW_INDEX = Handles.constructor("EytzingerIndex", int[].class);
+    private static final MethodHandle INDEX_CONTAINS = Handles.virtualMethod("EytzingerIndex", "contains",
+            MethodType.methodType(boolean.class, int.class));
+    private static final MethodHandle INDEX_COUNT_BETWEEN = Handles.virtualMethod("EytzingerIndex", "countBetween",
+            MethodType.methodType(int.class, int.class, int.class));
+
+    private static final MethodHandle FILE_SAVE = Handles.staticMethod("SortedKeyFile", "save",
+            MethodType.methodType(void.class, int[].class, Path.class));
+    private static final MethodHandle FILE_OPEN = Handles.staticMethod("SortedKeyFile", "open",
+            MethodType.methodType(Object.class, Path.class));
+    private static final MethodHandle FILE_CONTAINS = Handles.virtualMethod("SortedKeyFile", "contains",
+            MethodType.methodType(boolean.class, int.class));
+    private static final MethodHandle FILE_COUNT_BETWEEN = Handles.virtualMethod("SortedKeyFile", "countBetween",
+            MethodType.methodType(long.class, int.class, int.class));
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("IntBinarySearchTree", int.class);
+    private static final MethodHandle TREE_INSERT = Handles.virtualMethod("IntBinarySearchTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle TREE_CONTAINS = Handles.virtualMethod("IntBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+
+    private int[] sorted;       // The even numbers 0 to 2 * (size - 1)
+    private int[] probes;       // Random values in [0, 2 * size); the even ones are hits
+    private Object index;       // EytzingerIndex, SortedKeyFile or IntBinarySearchTree
+    private Path file;          // The key file of "mapped"
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3320);
+        sorted = new int[size];
+        for (int i = 0; i < size; i++)
+            sorted[i] = 2 * i;
+
+        probes = new int[PROBES];
+        for (int i = 0; i < PROBES; i++)
+            probes[i] = random.nextInt(2 * size);
+
+        switch (impl) {
+            case "eytzinger":
+                index = (Object) NEW_INDEX.invokeExact(sorted);
+                break;
+            case "sorted":
+                break;
+            case "mapped":
+                file = Files.createTempFile("keys", ".bin");
+                FILE_SAVE.invokeExact(sorted, file);
+                index = (Object) FILE_OPEN.invokeExact(file);
+                break;
+            case "tree":
+                int[] shuffled = sorted.clone();
+                for (int i = size - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int temp = shuffled[i];
+                    shuffled[i] = shuffled[j];
+                    shuffled[j] = temp;
+                }
+
+                index = (Object) NEW_TREE.invokeExact(size);
+                for (int key : shuffled)
+                    TREE_INSERT.invokeExact(index, key);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (file != null)
+            Files.delete(file);     // The mapping stays valid until it is collected
+    }
+
+    /**
+     * Looks up one random key.
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        int x = probes[next++ & (PROBES - 1)];
+
+        switch (impl) {
+            case "eytzinger":
+                return (boolean) INDEX_CONTAINS.invokeExact(index, x);
+            case "sorted":
+                return Arrays.binarySearch(sorted, x) >= 0;
+            case "mapped":
+                return (boolean) FILE_CONTAINS.invokeExact(index, x);
+            default:
+                return (boolean) TREE_CONTAINS.invokeExact(index, x);
+        }
+    }
+
+    /**
+     * Counts the keys in a random window of 64 values, which holds 32 keys. The Eytzinger range walk
+     * jumps around the layout, so compare it with the sorted array, which scans contiguously.
+     */
+    @Benchmark
+    public int countBetween() throws Throwable {
+        int low = probes[next++ & (PROBES - 1)];
+
+        switch (impl) {
+            case "eytzinger":
+                return (int) INDEX_COUNT_BETWEEN.invokeExact(index, low, low + 63);
+            case "sorted":
+                int from = Arrays.binarySearch(sorted, low);
+                int to = Arrays.binarySearch(sorted, low + 63);
+                return ((to < 0) ? -to - 1 : to + 1) - ((from < 0) ? -from - 1 : from);
+            case "mapped":
+                return (int) (long) FILE_COUNT_BETWEEN.invokeExact(index, low, low + 63);
+            default:
+                return 0;   // Range scans of the pointer tree are covered by IntBinarySearchTreeBenchmark
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/****************************************************
+ *  Program Title: Int B+Tree Benchmark             *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for point and range workloads on IntBPlusTree at 1, 2 and 4 cache lines per node,
+ * against the binary IntBinarySearchTree. Both trees are built from the same keys in random order.
+ * Larger sizes need a bigger heap, for example -p size=100000000 -jvmArgsAppend -Xmx8g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IntBPlusTreeBenchmark {
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"binary", "15", "31", "63"})
+    public String nodeKeys;
+
+    private static final int PROBES = 1 << 16;
+    private static final int RANGE_WIDTH = 1000;
+
+    private static final MethodHandle NEW_BPLUS = Handles.constructor("IntBPlusTree", int.class);
+    private static final MethodHandle BPLUS_INSERT = Handles.virtualMethod("IntBPlusTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle BPLUS_REMOVE = Handles.virtualMethod("IntBPlusTree", "remove",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle BPLUS_CONTAINS = Handles.virtualMethod("IntBPlusTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+    private static final MethodHandle BPLUS_RANGE_ITERATOR = Handles.virtualMethod("IntBPlusTree", "rangeIterator",
+            MethodType.methodType(PrimitiveIterator.OfInt.class, int.class, int.class));
+
+    private static final MethodHandle NEW_BINARY = Handles.constructor("IntBinarySearchTree", int.class);
+    private static final MethodHandle BINARY_INSERT = Handles.virtualMethod("IntBinarySearchTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle BINARY_REMOVE = Handles.virtualMethod("IntBinarySearchTree", "remove",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle BINARY_CONTAINS = Handles.virtualMethod("IntBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+    private static final MethodHandle BINARY_RANGE_ITERATOR = Handles.virtualMethod("IntBinarySearchTree", "rangeIterator",
+            MethodType.methodType(PrimitiveIterator.OfInt.class, int.class, int.class));
+
+    private boolean binary;
+    private int[] probes;       // Random keys in [0, size), all of them present
+    private Object tree;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3320);
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = temp;
+        }
+
+        probes = new int[PROBES];
+        for (int i = 0; i < PROBES; i++)
+            probes[i] = random.nextInt(size);
+
+        binary = nodeKeys.equals("binary");
+        if (binary) {
+            tree = (Object) NEW_BINARY.invokeExact(size);
+            for (int key : keys)
+                BINARY_INSERT.invokeExact(tree, key);
+        } else {
+            tree = (Object) NEW_BPLUS.invokeExact(Integer.parseInt(nodeKeys));
+            for (int key : keys)
+                BPLUS_INSERT.invokeExact(tree, key);
+        }
+    }
+
+    /**
+     * Looks up one random key.
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        int x = probes[next++ & (PROBES - 1)];
+        return binary ? (boolean) BINARY_CONTAINS.invokeExact(tree, x) : (boolean) BPLUS_CONTAINS.invokeExact(tree, x);
+    }
+
+    /**
+     * Removes one random key and inserts it again, so the key set is the same between calls.
+     */
+    @Benchmark
+    public Object removeAndReinsert() throws Throwable {
+        int x = probes[next++ & (PROBES - 1)];
+
+        if (binary) {
+            BINARY_REMOVE.invokeExact(tree, x);
+            BINARY_INSERT.invokeExact(tree, x);
+        } else {
+            BPLUS_REMOVE.invokeExact(tree, x);
+            BPLUS_INSERT.invokeExact(tree, x);
+        }
+        return tree;
+    }
+
+    /**
+     * Sums the RANGE_WIDTH keys starting at a random key.
+     */
+    @Benchmark
+    public long rangeScan() throws Throwable {
+        int low = probes[next++ & (PROBES - 1)];
+        PrimitiveIterator.OfInt range = binary
+                ? (PrimitiveIterator.OfInt) BINARY_RANGE_ITERATOR.invokeExact(tree, low, low + RANGE_WIDTH - 1)
+                : (PrimitiveIterator.OfInt) BPLUS_RANGE_ITERATOR.invokeExact(tree, low, low + RANGE_WIDTH - 1);
+        long sum = 0;
+
+        while (range.hasNext())
+            sum += range.nextInt();
+
+        return sum;
+    }
+}
@@ -0,0 +1,127 @@
+/****************************************************
+ *  Program Title: Int Binary Search Tree Benchmark *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for IntBinarySearchTree, the primitive struct-of-arrays tree. The benchmarks
+ * mirror those of BinarySearchTreeBenchmark with balanced=false and random order, so the scores
+ * can be compared directly to see the cost of boxed keys and per-node objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntBinarySearchTreeBenchmark {
+    @Param({"1000", "10000", "1000000"})
+    public int size;
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("IntBinarySearchTree", int.class);
+    private static final MethodHandle INSERT = Handles.virtualMethod("IntBinarySearchTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle REMOVE = Handles.virtualMethod("IntBinarySearchTree", "remove",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle CONTAINS = Handles.virtualMethod("IntBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+    private static final MethodHandle RANGE_ITERATOR = Handles.virtualMethod("IntBinarySearchTree", "rangeIterator",
+            MethodType.methodType(PrimitiveIterator.OfInt.class, int.class, int.class));
+
+    private int[] keys;         // Keys 0 to size - 1 in random insertion order
+    private int[] probes;       // The same keys in another random order for contains and remove
+    private Object tree;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3320);
+        keys = toInts(BinarySearchTreeBenchmark.orderedKeys("random", size, random));
+        probes = toInts(BinarySearchTreeBenchmark.orderedKeys("random", size, random));
+        tree = build(keys);
+    }
+
+    /**
+     * Builds a whole tree from the keys in insertion order.
+     */
+    @Benchmark
+    public Object insert() throws Throwable {
+        return build(keys);
+    }
+
+    /**
+     * Looks up one key, cycling through the keys in random order.
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        return (boolean) CONTAINS.invokeExact(tree, nextProbe());
+    }
+
+    /**
+     * Removes one key and inserts it again; the freed node is reused from the free list.
+     */
+    @Benchmark
+    public Object removeAndReinsert() throws Throwable {
+        int key = nextProbe();
+        REMOVE.invokeExact(tree, key);
+        INSERT.invokeExact(tree, key);
+        return tree;
+    }
+
+    /**
+     * Scans the middle tenth of the key range.
+     * @return the sum of the keys in range.
+     */
+    @Benchmark
+    public long rangeScan() throws Throwable {
+        PrimitiveIterator.OfInt range = (PrimitiveIterator.OfInt) RANGE_ITERATOR.invokeExact(tree, size * 9 / 20, size * 11 / 20);
+        long sum = 0;
+
+        while (range.hasNext())
+            sum += range.nextInt();
+
+        return sum;
+    }
+
+    private int nextProbe() {
+        if (next == probes.length)
+            next = 0;
+        return probes[next++];
+    }
+
+    private static Object build(int[] keys) throws Throwable {
+        Object t = (Object) NEW_TREE.invokeExact(keys.length);
+        for (int key : keys)
+            INSERT.invokeExact(t, key);
+        return t;
+    }
+
+    private static int[] toInts(Integer[] boxed) {
+        int[] ints = new int[boxed.length];
+        for (int i = 0; i < boxed.length; i++)
+            ints[i] = boxed[i];
+        return ints;
+    }
+}
@@ -0,0 +1,95 @@
+/****************************************************
+ *  Program Title: Int Token Reader Benchmark       *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for parsing a line of space separated ints, without building a tree, so only the
+ * parsing is measured. "split" is the original trim, replaceAll and split with Integer.parseInt
+ * per token; "reader" is IntTokenReader over the same bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntTokenReaderBenchmark {
+    @Param({"1000000"})
+    public int count;
+
+    private static final MethodHandle NEW_READER = Handles.constructor("IntTokenReader", ReadableByteChannel.class);
+    private static final MethodHandle NEXT = Handles.virtualMethod("IntTokenReader", "next",
+            MethodType.methodType(boolean.class));
+    private static final MethodHandle VALUE = Handles.virtualMethod("IntTokenReader", "value",
+            MethodType.methodType(int.class));
+
+    private String line;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(3320);
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < count; i++)
+            text.append(random.nextInt(-9999, 10000)).append(i % 10 == 0 ? "  " : " ");
+
+        line = text.toString();
+        bytes = line.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses the line the way convertIntStringToBST originally did.
+     * @return the sum of the ints.
+     */
+    @Benchmark
+    public long split() {
+        long sum = 0;
+
+        for (String token : line.trim().replaceAll(" +", " ").split(" "))
+            sum += Integer.parseInt(token);
+
+        return sum;
+    }
+
+    /**
+     * Parses the same line from its bytes with IntTokenReader.
+     * @return the sum of the ints.
+     */
+    @Benchmark
+    public long reader() throws Throwable {
+        Object reader = (Object) NEW_READER.invokeExact(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        long sum = 0;
+
+        while ((boolean) NEXT.invokeExact(reader))
+            sum += (int) VALUE.invokeExact(reader);
+
+        return sum;
+    }
+}
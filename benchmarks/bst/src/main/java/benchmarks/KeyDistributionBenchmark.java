@@ -0,0 +1,136 @@
+/****************************************************
+ *  Program Title: Key Distribution Benchmark       *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for building and probing the trees with keys from each DataGenerator distribution.
+ * Keys are drawn from [0, size - 1], so uniform and zipf insert duplicates, and sorted, reverse and
+ * nearlySorted insert every key once. The probes come from the same distribution with another seed.
+ * "plain" and "int" are unbalanced, so sorted and reverse keys make them quadratic; keep their
+ * sizes small. The assignment classes are called through Handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyDistributionBenchmark {
+    @Param({"10000"})
+    public int size;
+
+    @Param({"uniform", "zipf", "sorted", "reverse", "nearlySorted", "noHit"})
+    public String distribution;
+
+    @Param({"plain", "balanced", "int", "bplus"})
+    public String tree;
+
+    private static final MethodHandle NEW_GENERATOR = Handles.constructor("DataGenerator", long.class, int.class, int.class);
+    private static final MethodHandle GENERATE = Handles.virtualMethod("DataGenerator", "generate",
+            MethodType.methodType(int[].class, String.class, int.class));
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("BinarySearchTree", boolean.class);
+    private static final MethodHandle INSERT = Handles.virtualMethod("BinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONTAINS = Handles.virtualMethod("BinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+
+    private static final MethodHandle NEW_INT_TREE = Handles.constructor("IntBinarySearchTree", int.class);
+    private static final MethodHandle INT_INSERT = Handles.virtualMethod("IntBinarySearchTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle INT_CONTAINS = Handles.virtualMethod("IntBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+
+    private static final MethodHandle NEW_BPLUS = Handles.constructor("IntBPlusTree");
+    private static final MethodHandle BPLUS_INSERT = Handles.virtualMethod("IntBPlusTree", "insert",
+            MethodType.methodType(void.class, int.class));
+    private static final MethodHandle BPLUS_CONTAINS = Handles.virtualMethod("IntBPlusTree", "contains",
+            MethodType.methodType(boolean.class, int.class));
+
+    private int[] keys;
+    private int[] probes;
+    private Object built;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        keys = generate(3320);
+        probes = generate(3321);
+        built = build();
+    }
+
+    /**
+     * Builds a whole tree from the keys in generated order.
+     */
+    @Benchmark
+    public Object insert() throws Throwable {
+        return build();
+    }
+
+    /**
+     * Looks up one key, cycling through the probes.
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        if (next == probes.length)
+            next = 0;
+        int key = probes[next++];
+
+        switch (tree) {
+            case "int":
+                return (boolean) INT_CONTAINS.invokeExact(built, key);
+            case "bplus":
+                return (boolean) BPLUS_CONTAINS.invokeExact(built, key);
+            default:
+                return (boolean) CONTAINS.invokeExact(built, (Comparable) Integer.valueOf(key));
+        }
+    }
+
+    private int[] generate(long seed) throws Throwable {
+        Object generator = (Object) NEW_GENERATOR.invokeExact(seed, 0, size - 1);
+        return (int[]) GENERATE.invokeExact(generator, distribution, size);
+    }
+
+    private Object build() throws Throwable {
+        Object t;
+
+        switch (tree) {
+            case "int":
+                t = (Object) NEW_INT_TREE.invokeExact(size);
+                for (int key : keys)
+                    INT_INSERT.invokeExact(t, key);
+                return t;
+            case "bplus":
+                t = (Object) NEW_BPLUS.invokeExact();
+                for (int key : keys)
+                    BPLUS_INSERT.invokeExact(t, key);
+                return t;
+            default:
+                t = (Object) NEW_TREE.invokeExact(tree.equals("balanced"));
+                for (int key : keys)
+                    INSERT.invokeExact(t, (Comparable) Integer.valueOf(key));
+                return t;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/****************************************************
+ *  Program Title: Concurrent Tree Cross Check      *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #2                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Randomized check of ConcurrentBinarySearchTree against the plain BinarySearchTree, run before
+ * trusting ConcurrentTreeBenchmark numbers. Each round applies the same random inserts and removes
+ * to both trees and compares contains, findMin, findMax, size and range after every operation.
+ * Range bounds are drawn from a window wider than the keys, so ranges below, above and around the
+ * key span are all covered, as are empty trees and ranges with k1 &gt; k2.
+ * <p>
+ * Run with:
+ * <pre>
+ * java -cp bst/target/benchmarks.jar benchmarks.TreeCrossCheck [rounds] [seed]
+ * </pre>
+ * Exits with status 1 and a description of the first difference.
+ */
+public final class TreeCrossCheck {
+    private static final int KEYS = 200;                // Keys are drawn from [0, KEYS)
+    private static final int MARGIN = 50;               // Range bounds reach this far outside the keys
+    private static final int OPERATIONS = 2000;         // Operations per round
+
+    private static final MethodHandle NEW_CONCURRENT = Handles.constructor("ConcurrentBinarySearchTree");
+    private static final MethodHandle CONCURRENT_INSERT = Handles.virtualMethod("ConcurrentBinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_REMOVE = Handles.virtualMethod("ConcurrentBinarySearchTree", "remove",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_CONTAINS = Handles.virtualMethod("ConcurrentBinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_RANGE = Handles.virtualMethod("ConcurrentBinarySearchTree", "range",
+            MethodType.methodType(List.class, Comparable.class, Comparable.class));
+    private static final MethodHandle CONCURRENT_MIN = Handles.virtualMethod("ConcurrentBinarySearchTree", "findMin",
+            MethodType.methodType(Comparable.class));
+    private static final MethodHandle CONCURRENT_MAX = Handles.virtualMethod("ConcurrentBinarySearchTree", "findMax",
+            MethodType.methodType(Comparable.class));
+    private static final MethodHandle CONCURRENT_SIZE = Handles.virtualMethod("ConcurrentBinarySearchTree", "size",
+            MethodType.methodType(int.class));
+
+    private static final MethodHandle NEW_TREE = Handles.constructor("BinarySearchTree", boolean.class);
+    private static final MethodHandle INSERT = Handles.virtualMethod("BinarySearchTree", "insert",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle REMOVE = Handles.virtualMethod("BinarySearchTree", "remove",
+            MethodType.methodType(void.class, Comparable.class));
+    private static final MethodHandle CONTAINS = Handles.virtualMethod("BinarySearchTree", "contains",
+            MethodType.methodType(boolean.class, Comparable.class));
+    private static final MethodHandle RANGE_ITERATOR = Handles.virtualMethod("BinarySearchTree", "rangeIterator",
+            MethodType.methodType(Iterator.class, Comparable.class, Comparable.class));
+    private static final MethodHandle MIN = Handles.virtualMethod("BinarySearchTree", "findMin",
+            MethodType.methodType(Comparable.class));
+    private static final MethodHandle MAX = Handles.virtualMethod("BinarySearchTree", "findMax",
+            MethodType.methodType(Comparable.class));
+    private static final MethodHandle SIZE = Handles.virtualMethod("BinarySearchTree", "size",
+            MethodType.methodType(int.class));
+
+    private TreeCrossCheck() {
+    }
+
+    public static void main(String[] args) throws Throwable {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 3320;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (int round = 0; round < rounds; round++) {
+            String failure = round(random.split());
+            if (failure != null) {
+                System.err.println("Round " + round + " of seed " + seed + ": " + failure);
+                System.exit(1);
+            }
+        }
+
+        System.out.println("ConcurrentBinarySearchTree matched BinarySearchTree in " + rounds + " rounds of "
+                + OPERATIONS + " operations.");
+    }
+
+    /**
+     * Run one round on fresh trees.
+     * @param random The generator of the round.
+     * @return a description of the first difference, or null if there was none.
+     */
+    private static String round(SplittableRandom random) throws Throwable {
+        Object concurrent = (Object) NEW_CONCURRENT.invokeExact();
+        Object plain = (Object) NEW_TREE.invokeExact(false);
+        int insertPercent = 30 + random.nextInt(50);    // Rounds differ in how full the tree gets
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            Comparable key = random.nextInt(KEYS);
+            if (random.nextInt(100) < insertPercent) {
+                CONCURRENT_INSERT.invokeExact(concurrent, key);
+                INSERT.invokeExact(plain, key);
+            } else {
+                CONCURRENT_REMOVE.invokeExact(concurrent, key);
+                REMOVE.invokeExact(plain, key);
+            }
+
+            Comparable probe = random.nextInt(-MARGIN, KEYS + MARGIN);
+            Comparable k1 = random.nextInt(-MARGIN, KEYS + MARGIN);
+            Comparable k2 = random.nextInt(-MARGIN, KEYS + MARGIN);
+
+            String failure = compare("contains(" + probe + ")", (boolean) CONCURRENT_CONTAINS.invokeExact(concurrent, probe),
+                    (boolean) CONTAINS.invokeExact(plain, probe));
+            if (failure == null)
+                failure = compare("findMin()", (Comparable) CONCURRENT_MIN.invokeExact(concurrent),
+                        (Comparable) MIN.invokeExact(plain));
+            if (failure == null)
+                failure = compare("findMax()", (Comparable) CONCURRENT_MAX.invokeExact(concurrent),
+                        (Comparable) MAX.invokeExact(plain));
+            if (failure == null)
+                failure = compare("size()", (int) CONCURRENT_SIZE.invokeExact(concurrent), (int) SIZE.invokeExact(plain));
+            if (failure == null)
+                failure = compare("range(" + k1 + ", " + k2 + ")", (List<?>) CONCURRENT_RANGE.invokeExact(concurrent, k1, k2),
+                        toList((Iterator<?>) RANGE_ITERATOR.invokeExact(plain, k1, k2)));
+            if (failure != null)
+                return "after " + (i + 1) + " operations, " + failure;
+        }
+
+        return null;
+    }
+
+    private static String compare(String operation, Object concurrent, Object plain) {
+        return (concurrent == null ? plain == null : concurrent.equals(plain)) ? null
+                : operation + " returned " + concurrent + " but BinarySearchTree returned " + plain;
+    }
+
+    private static List<Object> toList(Iterator<?> range) {
+        List<Object> items = new ArrayList<>();
+
+        while (range.hasNext())
+            items.add(range.next());
+        return items;
+    }
+}
@@ -0,0 +1,86 @@
+/****************************************************
+ *  Program Title: Data Generator Benchmark         *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for DataGenerator against the sequential ThreadLocalRandom loop that
+ * PAssignOne.generateArray used before. "fill" is Arrays.fill over the same size, the memory
+ * bandwidth bound that a parallel generator should approach with enough cores. The baselines
+ * ignore the distribution, so run them with -p distribution=uniform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DataGeneratorBenchmark {
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"uniform", "zipf", "sorted", "reverse", "nearlySorted", "noHit"})
+    public String distribution;
+
+    private static final MethodHandle NEW_GENERATOR = Handles.constructor("DataGenerator", long.class, int.class, int.class);
+    private static final MethodHandle GENERATE = Handles.virtualMethod("DataGenerator", "generate",
+            MethodType.methodType(int[].class, String.class, int.class));
+
+    private Object generator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        generator = (Object) NEW_GENERATOR.invokeExact(3320L, -9999, 9999);
+    }
+
+    /**
+     * Generates a new array with DataGenerator.
+     */
+    @Benchmark
+    public int[] generate() throws Throwable {
+        return (int[]) GENERATE.invokeExact(generator, distribution, size);
+    }
+
+    /**
+     * Generates a new array one element at a time, as generateArray did.
+     */
+    @Benchmark
+    public int[] threadLocalRandom() {
+        int[] a = new int[size];
+        for (int i = 0; i < size; i++)
+            a[i] = ThreadLocalRandom.current().nextInt(-9999, 10000);
+        return a;
+    }
+
+    /**
+     * Fills a new array with a constant.
+     */
+    @Benchmark
+    public int[] fill() {
+        int[] a = new int[size];
+        Arrays.fill(a, 1);
+        return a;
+    }
+}
@@ -0,0 +1,95 @@
+/****************************************************
+ *  Program Title: K-Sum Benchmark                  *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for KSumEngine. As in PairSumBenchmark the array holds even values only, so an odd
+ * k is a guaranteed miss that searches every first element, and a k taken from arity elements is a
+ * guaranteed hit. The values are drawn from [-5*10^8, 5*10^8), so findAll reports only a few tuples
+ * and the sum of four values still fits in k.
+ * 4SUM sorts n^2 / 2 pair sums per call, so keep its sizes small.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class KSumBenchmark {
+    @Param({"1000", "4000"})
+    public int size;
+
+    @Param({"3", "4"})
+    public int arity;
+
+    @Param({"true", "false"})
+    public boolean hit;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private static final int RANGE = 500_000_000;
+
+    private static final MethodHandle FIND = Handles.staticMethod("KSumEngine", "find",
+            MethodType.methodType(int[].class, int[].class, int.class, int.class, boolean.class));
+    private static final MethodHandle FIND_ALL = Handles.staticMethod("KSumEngine", "findAll",
+            MethodType.methodType(Object.class, int[].class, int.class, int.class, boolean.class));
+
+    private int[] data;
+    private int k;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(3320);
+        data = new int[size];
+
+        for (int i = 0; i < size; i++)
+            data[i] = random.nextInt(-RANGE, RANGE) & ~1;
+
+        // Elements spread over the array, so the hit is not found by the first outer iteration.
+        long sum = 0;
+        for (int j = 1; j <= arity; j++)
+            sum += data[j * size / (arity + 1)];
+        k = hit ? (int) sum : 1;
+    }
+
+    /**
+     * Finds the smallest tuple. KSumEngine sorts its input in place, so it gets a fresh copy.
+     * @return The tuple, or null if there is none.
+     */
+    @Benchmark
+    public int[] find() throws Throwable {
+        return (int[]) FIND.invokeExact(data.clone(), k, arity, parallel);
+    }
+
+    /**
+     * Enumerates every tuple.
+     * @return The buffer of tuples.
+     */
+    @Benchmark
+    public Object findAll() throws Throwable {
+        return (Object) FIND_ALL.invokeExact(data.clone(), k, arity, parallel);
+    }
+}
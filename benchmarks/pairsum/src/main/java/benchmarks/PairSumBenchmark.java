@@ -0,0 +1,110 @@
+/****************************************************
+ *  Program Title: Pair Sum Benchmark               *
+ *  Class: CSCI3320, Summer 2021                    *
+ *  Assignment #1                                   *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for every PairSumEngine strategy and the PairSumIndex query path.
+ * The array holds even values only, so an odd k is a guaranteed miss and a k taken from
+ * two elements is a guaranteed hit. allPairs reports every matching pair instead of stopping at
+ * the first, so it always sweeps the whole O(n^2) pair space.
+ * The assignment classes are called through Handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairSumBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    /**
+     * Values are drawn uniformly from [-range, range). 9999 matches PAssignOne.generateArray.
+     */
+    @Param({"9999", "1000000000"})
+    public int range;
+
+    @Param({"true", "false"})
+    public boolean hit;
+
+    @Param({"quadratic", "allPairs", "logarithmic", "hashed", "counting", "parallel", "indexed"})
+    public String strategy;
+
+    private static final MethodType ALGORITHM = MethodType.methodType(int[].class, int[].class, int.class);
+    private static final MethodHandle QUADRATIC = Handles.staticMethod("PairSumEngine", "quadratic", ALGORITHM);
+    private static final MethodHandle ALL_PAIRS = Handles.staticMethod("PairSumEngine", "allPairs",
+            MethodType.methodType(Object.class, int[].class, int.class));
+    private static final MethodHandle LOGARITHMIC = Handles.staticMethod("PairSumEngine", "logarithmic", ALGORITHM);
+    private static final MethodHandle HASHED = Handles.staticMethod("PairSumEngine", "hashed", ALGORITHM);
+    private static final MethodHandle COUNTING = Handles.staticMethod("PairSumEngine", "counting", ALGORITHM);
+    private static final MethodHandle PARALLEL = Handles.staticMethod("PairSumEngine", "parallel", ALGORITHM);
+    private static final MethodHandle NEW_INDEX = Handles.constructor("PairSumIndex", int[].class);
+    private static final MethodHandle QUERY = Handles.virtualMethod("PairSumIndex", "query",
+            MethodType.methodType(int[].class, int.class));
+
+    private int[] data;
+    private int k;
+    private Object index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3320);
+        data = new int[size];
+
+        for (int i = 0; i < size; i++)
+            data[i] = random.nextInt(-range, range) & ~1;
+
+        k = hit ? data[size / 3] + data[2 * size / 3] : 1;
+        index = strategy.equals("indexed") ? (Object) NEW_INDEX.invokeExact(data) : null;
+    }
+
+    /**
+     * Runs one pair sum query. The sorting strategies sort their input in place, so every
+     * strategy works on a fresh copy and pays the same copy cost.
+     * @return The matching pair, or null if there is none; for allPairs, the buffer of every pair.
+     */
+    @Benchmark
+    public Object pairSum() throws Throwable {
+        switch (strategy) {
+            case "quadratic":
+                return (int[]) QUADRATIC.invokeExact(data.clone(), k);
+            case "allPairs":
+                return (Object) ALL_PAIRS.invokeExact(data.clone(), k);
+            case "logarithmic":
+                return (int[]) LOGARITHMIC.invokeExact(data.clone(), k);
+            case "hashed":
+                return (int[]) HASHED.invokeExact(data.clone(), k);
+            case "counting":
+                return (int[]) COUNTING.invokeExact(data.clone(), k);
+            case "parallel":
+                return (int[]) PARALLEL.invokeExact(data.clone(), k);
+            case "indexed":
+                return (int[]) QUERY.invokeExact(index, k);
+            default:
+                throw new IllegalStateException("Unknown strategy " + strategy);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/****************************************************
+ *  Program Title: Benchmark Method Handles         *
+ *  Class: CSCI3320, Summer 2021                    *
+ ****************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Looks up methods of the assignment classes for the benchmarks.
+ * The assignment classes live in the default package, which JMH benchmarks may not use and which
+ * cannot be imported from a named package, so benchmarks reach them through method handles.
+ * Kept in static final fields, the handles are constants the JIT inlines like a direct call.
+ * <p>
+ * Every assignment class in a returned handle type is replaced by Object, so call sites can use
+ * invokeExact without naming the class.
+ */
+public final class Handles {
+    private Handles() {
+    }
+
+    /**
+     * Find a public static method. An assignment class returned by the method is typed as Object.
+     * @param className Name of the default package class.
+     * @param name Name of the method.
+     * @param type Type of the method, with Object in place of an assignment class return type.
+     * @return the method handle.
+     */
+    public static MethodHandle staticMethod(String className, String name, MethodType type) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(
+                    Class.forName(className).getMethod(name, type.parameterArray()));
+            return handle.asType(type);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot find " + className + "." + name, ex);
+        }
+    }
+
+    /**
+     * Find a public instance method. The receiver, and an assignment class returned by the method, are typed as Object.
+     * @param className Name of the default package class.
+     * @param name Name of the method.
+     * @param type Type of the method, without the receiver, with Object in place of an assignment class return type.
+     * @return the method handle, taking the receiver as its first argument.
+     */
+    public static MethodHandle virtualMethod(String className, String name, MethodType type) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(
+                    Class.forName(className).getMethod(name, type.parameterArray()));
+            return handle.asType(handle.type().changeParameterType(0, Object.class).changeReturnType(erase(handle.type().returnType())));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot find " + className + "." + name, ex);
+        }
+    }
+
+    /**
+     * Find a public constructor. The new object is returned as Object.
+     * @param className Name of the default package class.
+     * @param parameterTypes Parameter types of the constructor.
+     * @return the method handle.
+     */
+    public static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(Class.forName(className),
+                    MethodType.methodType(void.class, parameterTypes));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot find " + className + " constructor", ex);
+        }
+    }
+
+    private static Class<?> erase(Class<?> type) {
+        return (type.isPrimitive() || type.getPackageName().startsWith("java.")) ? type : Object.class;
+    }
+}